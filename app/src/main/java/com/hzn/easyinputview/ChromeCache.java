@@ -0,0 +1,98 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * 输入框静态部分（底部线条）的缓存，正常状态和填充状态各绘制一次，
+ * 尺寸、线条粗细或颜色改变时重新绘制，动画帧中只需绘制缓存的图层
+ */
+final class ChromeCache {
+
+    // 只在UI线程绘制缓存时使用，所有实例共用
+    private static final Paint paint = new Paint();
+
+    static {
+        paint.setStyle(Paint.Style.STROKE);
+    }
+
+    private Bitmap idleLayer;
+    private Bitmap fillLayer;
+
+    private int width = -1;
+    private int strokeWidth = -1;
+    private int idleColor;
+    private int fillColor;
+
+    /**
+     * 确保缓存与当前参数一致，不一致时重新绘制
+     *
+     * @param width       线条长度
+     * @param strokeWidth 线条粗细
+     * @param idleColor   正常状态下的颜色
+     * @param fillColor   填充状态下的颜色
+     */
+    void prepare(int width, int strokeWidth, int idleColor, int fillColor) {
+        if (null != idleLayer && this.width == width && this.strokeWidth == strokeWidth
+                && this.idleColor == idleColor && this.fillColor == fillColor)
+            return;
+
+        release();
+        this.width = width;
+        this.strokeWidth = strokeWidth;
+        this.idleColor = idleColor;
+        this.fillColor = fillColor;
+        if (width <= 0)
+            return;
+
+        idleLayer = createLayer(idleColor);
+        fillLayer = idleColor == fillColor ? idleLayer : createLayer(fillColor);
+    }
+
+    private Bitmap createLayer(int color) {
+        Bitmap bitmap = Bitmap.createBitmap(width, getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        paint.setColor(color);
+        paint.setStrokeWidth(strokeWidth);
+        float y = getHeight() / 2f;
+        canvas.drawLine(0, y, width, y, paint);
+        return bitmap;
+    }
+
+    /**
+     * 绘制缓存的图层
+     *
+     * @param canvas    画布
+     * @param fillState true为填充状态
+     * @param x         线条起点x坐标
+     * @param lineY     线条中心y坐标
+     */
+    void draw(Canvas canvas, boolean fillState, float x, float lineY) {
+        Bitmap layer = fillState ? fillLayer : idleLayer;
+        if (null != layer)
+            canvas.drawBitmap(layer, x, lineY - getHeight() / 2f, null);
+    }
+
+    /**
+     * 图层高度，细线（粗细为0）按1像素处理
+     *
+     * @return 图层高度
+     */
+    int getHeight() {
+        return Math.max(strokeWidth, 1);
+    }
+
+    /**
+     * 释放缓存，下次绘制时重新创建
+     */
+    void release() {
+        if (null != fillLayer && fillLayer != idleLayer)
+            fillLayer.recycle();
+        if (null != idleLayer)
+            idleLayer.recycle();
+        idleLayer = null;
+        fillLayer = null;
+        width = -1;
+    }
+}
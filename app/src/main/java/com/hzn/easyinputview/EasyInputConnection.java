@@ -0,0 +1,77 @@
+package com.hzn.easyinputview;
+
+import android.view.inputmethod.BaseInputConnection;
+
+/**
+ * 输入法与输入框之间的连接，提交的文字逐个字符直接写入输入框，
+ * 不经过Editable，也不产生中间的String，写入后数据立即生效。
+ * 组合中的文字（例如拼音或联想输入）同样直接显示在末尾，每次更新时替换上一次的组合文字，
+ * 控制字符与实体键盘一样不写入
+ */
+final class EasyInputConnection extends BaseInputConnection {
+
+    private final EasyInputView view;
+    // 末尾正在组合的字符个数
+    private int composingLength;
+
+    EasyInputConnection(EasyInputView view) {
+        super(view, false);
+        this.view = view;
+    }
+
+    @Override
+    public boolean commitText(CharSequence text, int newCursorPosition) {
+        removeComposing();
+        addText(text);
+        return true;
+    }
+
+    @Override
+    public boolean setComposingText(CharSequence text, int newCursorPosition) {
+        removeComposing();
+        composingLength = addText(text);
+        return true;
+    }
+
+    @Override
+    public boolean finishComposingText() {
+        // 组合中的文字已经写入，保留即可
+        composingLength = 0;
+        return true;
+    }
+
+    @Override
+    public boolean deleteSurroundingText(int beforeLength, int afterLength) {
+        // 光标总是在末尾，只处理光标前的字符
+        composingLength = 0;
+        for (int i = 0; i < beforeLength; i++)
+            view.remove();
+        return true;
+    }
+
+    /**
+     * 逐个写入可输入的字符
+     *
+     * @return 实际写入的字符个数，达到最大个数后的字符不写入
+     */
+    private int addText(CharSequence text) {
+        if (null == text)
+            return 0;
+
+        CharSequence current = view.getText();
+        int oldLength = current.length();
+        int len = text.length();
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (EasyInputView.isInputChar(c))
+                view.add(c);
+        }
+        return current.length() - oldLength;
+    }
+
+    private void removeComposing() {
+        for (int i = 0; i < composingLength; i++)
+            view.remove();
+        composingLength = 0;
+    }
+}
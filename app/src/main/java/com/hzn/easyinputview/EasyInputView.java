@@ -4,12 +4,21 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.text.InputType;
 import android.text.TextPaint;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.KeyEvent;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+import android.view.inputmethod.InputMethodManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +41,9 @@ public class EasyInputView extends View {
     private int singleWidth;
     // 单个方块高，大于等于文字高，默认为文字高
     private int singleHeight;
+    // 设置的方块宽高，实际宽高会根据文字大小调整
+    private int requestedSingleWidth;
+    private int requestedSingleHeight;
     // 最多输入个数，默认4
     private int textMax;
     // 替代的文字，例如用于密码输入可以设置为 "*"，默认为空
@@ -46,41 +58,92 @@ public class EasyInputView extends View {
     private int strokePadding;
     // 每多少字符进行一次分隔，默认4
     private int separateNum;
+    // 分组规则，例如"4,6,5"，设置后代替separateNum，默认为空
+    private int[] separatePattern;
     // 间隔的距离，默认10dp
     private int separateWidth;
+    // 最多显示的方块个数，超出部分横向滚动，保持最后输入的位置可见，默认0为全部显示
+    private int visibleMax;
     // 模式，默认normal
     private int textMode;
     // 填充模式，默认normal
     private int fillMode;
+    // 输入满后校验失败时文字、填充及底部线条的颜色，默认-1为不改变颜色
+    private int invalidColor;
+    // 弹出输入法时的输入类型，默认为数字
+    private int imeInputType = InputType.TYPE_CLASS_NUMBER;
 
-    // 正常模式
-    private static final int MODE_NORMAL = 0;
-    // 分离模式（例如用于银行卡号的显示）
-    private static final int MODE_SEPARATE = 1;
-
-    // 正常填充模式，当填充满后，填充色消失
-    private static final int FILL_MODE_NORMAL = 0;
-    // 填充色总是不消失模式
-    private static final int FILL_MODE_ALWAYS = 1;
-    // 无填充色
-    private static final int FILL_MODE_NONE = 2;
-
-    private Paint paint;
-    private Paint strokePaint;
-    private TextPaint textPaint;
-    private Paint.FontMetrics fm;
+    /**
+     * 正常模式
+     */
+    public static final int MODE_NORMAL = 0;
+    /**
+     * 分离模式（例如用于银行卡号的显示）
+     */
+    public static final int MODE_SEPARATE = 1;
+
+    /**
+     * 正常填充模式，当填充满后，填充色消失
+     */
+    public static final int FILL_MODE_NORMAL = 0;
+    /**
+     * 填充色总是不消失模式
+     */
+    public static final int FILL_MODE_ALWAYS = 1;
+    /**
+     * 无填充色
+     */
+    public static final int FILL_MODE_NONE = 2;
+
+    // 共享的画笔及字体测量数据，不能修改
+    private InputStyle style;
+    // 校验失败时使用的样式，invalidColor为-1时为null
+    private InputStyle invalidStyle;
+    private ChromeCache chromeCache;
     private int startX;
     private int startY;
 
-    private List<String> dataList;
+    // 以下数据及动画状态只在UI线程中读写，其他线程通过ingestor提交输入
+    private InputBuffer buffer;
+    private InputIngestor ingestor;
+    // 所有实例共用的主线程Handler
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Runnable drainRunnable;
+    private GlyphLayout glyphLayout;
+    private GlyphLayout.Measurer measurer;
+    // 当前填充长度，只在UI线程中读写
     private int curLen;
-    private int speed;
 
-    private static final int ACTION_IDLE = 0;
+    // 填充一个方块的动画时长，单位ms
+    private static final long ANIM_DURATION = 100;
+    private InputAnimator animator;
+    private FrameClock frameClock;
+    // 用于合并同一帧内多次改变的通知
+    private FrameClock notifyClock;
+    // 内容改变的次数，与已通知的次数不同时回调onTextChanged
+    private int textVersion;
+    private int notifiedVersion;
+    private boolean notifiedFull;
+    private boolean notifiedEmpty = true;
+
+    // 耗时统计，默认为null不统计
+    private EasyMetrics metrics;
+
+    private static final InputValidator[] NO_VALIDATORS = new InputValidator[0];
+    // 校验器，每次增删字符时更新，默认为空
+    private InputValidator[] validators = NO_VALIDATORS;
+    // 所有校验器是否都有效
+    private boolean valid = true;
+
+    // 从当前填充长度开始播放，用于一次改变多个字符
+    private static final int ACTION_SET = 0;
     private static final int ACTION_ADD = 1;
     private static final int ACTION_REMOVE = 2;
-    private int curAction = ACTION_IDLE;
     private int contentWidth;
+    // 可见区域宽度，小于contentWidth时横向滚动
+    private int viewportWidth;
+    // 内容向左滚动的距离
+    private int scrollOffset;
 
     public EasyInputView(Context context) {
         this(context, null);
@@ -105,50 +168,88 @@ public class EasyInputView extends View {
         strokePadding = a.getDimensionPixelSize(R.styleable.EasyInputView_eivStrokePadding, (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, 0, getResources().getDisplayMetrics()));
         fillColor = a.getColor(R.styleable.EasyInputView_eivFillColor, Color.GRAY);
-        singleWidth = a.getDimensionPixelSize(R.styleable.EasyInputView_eivSingleWidth, (int) TypedValue.applyDimension(
+        requestedSingleWidth = a.getDimensionPixelSize(R.styleable.EasyInputView_eivSingleWidth, (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, -1, getResources().getDisplayMetrics()));
-        singleHeight = a.getDimensionPixelSize(R.styleable.EasyInputView_eivSingleHeight, (int) TypedValue.applyDimension(
+        requestedSingleHeight = a.getDimensionPixelSize(R.styleable.EasyInputView_eivSingleHeight, (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, -1, getResources().getDisplayMetrics()));
         textMax = a.getInteger(R.styleable.EasyInputView_eivTextMax, 4);
         separateNum = a.getInteger(R.styleable.EasyInputView_eivSeparateNum, 4);
+        String pattern = a.getString(R.styleable.EasyInputView_eivSeparatePattern);
+        if (!TextUtils.isEmpty(pattern))
+            separatePattern = SeparatePattern.parse(pattern);
         separateWidth = a.getDimensionPixelSize(R.styleable.EasyInputView_eivSeparateWidth, (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, 10, getResources().getDisplayMetrics()));
+        visibleMax = a.getInteger(R.styleable.EasyInputView_eivVisibleMax, 0);
         textMode = a.getInteger(R.styleable.EasyInputView_eivTextMode, MODE_NORMAL);
         fillMode = a.getInteger(R.styleable.EasyInputView_eivFillMode, FILL_MODE_NORMAL);
+        invalidColor = a.getColor(R.styleable.EasyInputView_eivInvalidColor, -1);
         a.recycle();
 
-        paint = new Paint();
-        paint.setStyle(Paint.Style.FILL);
-        paint.setColor(fillColor);
-        strokePaint = new Paint();
-        strokePaint.setStyle(Paint.Style.STROKE);
-        strokePaint.setColor(strokeColor);
-        strokePaint.setStrokeWidth(strokeWidth);
-        textPaint = new TextPaint();
-        textPaint.setAntiAlias(true);
-        textPaint.setTextSize(textSize);
-        fm = textPaint.getFontMetrics();
-
-        int textWidth = (int) textPaint.measureText("t");
-        int textHeight = (int) (fm.bottom - fm.top);
-        singleWidth = singleWidth < textWidth * 2 ? textWidth * 2 : singleWidth;
-        singleHeight = singleHeight < textHeight ? textHeight : singleHeight;
-
-        dataList = new ArrayList<>();
+        updateStyle();
+        chromeCache = new ChromeCache();
+        resolveSingleSize();
+
+        buffer = new InputBuffer(textMax);
+        drainRunnable = new Runnable() {
+            @Override
+            public void run() {
+                drainPending();
+            }
+        };
+        ingestor = new InputIngestor(new InputIngestor.Scheduler() {
+            @Override
+            public void schedule() {
+                mainHandler.post(drainRunnable);
+            }
+        });
+        glyphLayout = new GlyphLayout();
+        updateSlots();
+        glyphLayout.setInstead(TextUtils.isEmpty(textInstead) ? null : textInstead.toCharArray());
+        measurer = new GlyphLayout.Measurer() {
+            @Override
+            public float measureText(char[] text, int index, int count) {
+                return style.textPaint.measureText(text, index, count);
+            }
+        };
         curLen = 0;
-        speed = singleWidth / 5;
+        animator = new InputAnimator();
+        frameClock = FrameClock.create(this, new FrameClock.Callback() {
+            @Override
+            public void onFrame(long frameTimeNanos) {
+                doAnimationFrame(frameTimeNanos);
+            }
+        });
+        notifyClock = FrameClock.create(this, new FrameClock.Callback() {
+            @Override
+            public void onFrame(long frameTimeNanos) {
+                dispatchTextChange();
+            }
+        });
+        // 可获取焦点以接收实体键盘的按键，触摸时不获取焦点，不影响点击事件，
+        // 需要弹出系统输入法时使用showSoftInput()
+        setFocusable(true);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // 线条图层保留，RecyclerView中反复移除和添加时不需要重新创建
+        cancelAnimation();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         int mode = MeasureSpec.getMode(widthMeasureSpec);
         int width = MeasureSpec.getSize(widthMeasureSpec);
-        contentWidth = textMax * singleWidth;
-        if (textMode == MODE_SEPARATE) {
-            contentWidth += ((textMax - 1) / separateNum) * separateWidth;
-        }
+        contentWidth = glyphLayout.getContentWidth();
+        viewportWidth = contentWidth;
+        if (visibleMax > 0 && visibleMax < textMax)
+            viewportWidth = glyphLayout.lengthOf(visibleMax);
+        int available = width - getPaddingLeft() - getPaddingRight();
+        if (mode != MeasureSpec.UNSPECIFIED && available > 0 && available < viewportWidth)
+            viewportWidth = available;
         if (mode != MeasureSpec.EXACTLY) { // wrap_content
-            width = contentWidth + getPaddingLeft() + getPaddingRight();
+            width = viewportWidth + getPaddingLeft() + getPaddingRight();
         }
 
         mode = MeasureSpec.getMode(heightMeasureSpec);
@@ -157,7 +258,8 @@ public class EasyInputView extends View {
             height = singleHeight + getPaddingTop() + getPaddingBottom();
         }
 
-        startX = width / 2 - contentWidth / 2;
+        startX = width / 2 - viewportWidth / 2;
+        updateScroll();
         startY = height / 2 - singleHeight / 2;
 
         if (strokeColor != -1)
@@ -166,93 +268,414 @@ public class EasyInputView extends View {
         setMeasuredDimension(width, height);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateBaseline(h);
+    }
+
+    private void updateBaseline(int h) {
+        glyphLayout.setBaseline((h - strokeWidth - strokePadding) / 2 - (style.ascent + style.descent) / 2);
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
-        if (null != dataList && dataList.size() >= 0) {
-            int size = dataList.size();
-            // 改变颜色
-            if (size > 0 &&
-                    (fillMode == FILL_MODE_ALWAYS ||
-                            (size < textMax || size == textMax && startX + curLen < contentWidth))) {
-                // 绘制填充层
-                if (fillMode != FILL_MODE_NONE)
-                    canvas.drawRect(startX, startY, startX + curLen, startY + singleHeight, paint);
+        EasyMetrics.beginSection("EasyInputView#onDraw");
+        long start = null != metrics ? System.nanoTime() : 0;
 
-                // 底部线条
-                if (strokeColor != -1 && strokeFillColor != -1)
-                    strokePaint.setColor(strokeFillColor);
+        drawInput(canvas);
 
-                // 文字
-                if (fillMode != FILL_MODE_NONE)
-                    textPaint.setColor(textFillColor);
-                else
-                    textPaint.setColor(textColor);
-            } else {
-                // 底部线条
-                strokePaint.setColor(strokeColor);
+        if (null != metrics)
+            metrics.onInputDrawn(System.nanoTime() - start, SystemClock.uptimeMillis());
+        EasyMetrics.endSection();
+    }
 
-                // 文字
-                textPaint.setColor(textColor);
+    private void drawInput(Canvas canvas) {
+        if (null != buffer) {
+            boolean fillState = isFillState();
+            boolean tinted = isTinted();
+            InputStyle drawStyle = tinted ? invalidStyle : style;
+            boolean scrolling = viewportWidth < contentWidth;
+            int saveCount = 0;
+            if (scrolling) {
+                saveCount = canvas.save();
+                canvas.clipRect(startX, 0, startX + viewportWidth, getHeight());
             }
+            // 内容起点，滚动时向左偏移
+            int contentX = startX - scrollOffset;
 
-            // 绘制底部线条
-            canvas.drawLine(startX, startY + singleHeight + strokePadding, startX + contentWidth, startY + singleHeight + strokePadding, strokePaint);
-
-            // 绘制文字
-            float baseLine = (getHeight() - strokeWidth - strokePadding) / 2 - (fm.ascent + fm.descent) / 2;
-            for (int i = 0; i < size; i++) {
-                String str = dataList.get(i);
-                if (!TextUtils.isEmpty(textInstead))
-                    str = textInstead;
+            // 改变颜色，画笔为共享的，按状态选择而不修改颜色
+            TextPaint textPaint = drawStyle.textPaint;
+            if (fillState) {
+                // 绘制填充层
+                if (fillMode != FILL_MODE_NONE)
+                    canvas.drawRect(contentX, startY, contentX + curLen, startY + singleHeight, drawStyle.fillPaint);
 
-                int textWidth = (int) textPaint.measureText(str);
-                int x = startX + singleWidth * i + singleWidth / 2 - textWidth / 2;
+                // 文字
+                if (fillMode != FILL_MODE_NONE)
+                    textPaint = drawStyle.textFillPaint;
+            }
 
-                if (textMode == MODE_SEPARATE)
-                    x += (i / separateNum) * separateWidth;
+            // 绘制底部线条，使用缓存的图层，尺寸或颜色改变时才重新绘制
+            int strokeIdle = strokeColor;
+            int strokeFill = strokeColor != -1 && strokeFillColor != -1 ? strokeFillColor : strokeColor;
+            if (tinted && strokeColor != -1)
+                strokeIdle = strokeFill = invalidColor;
+            chromeCache.prepare(viewportWidth, strokeWidth, strokeIdle, strokeFill);
+            chromeCache.draw(canvas, fillState, startX, startY + singleHeight + strokePadding);
 
-                canvas.drawText(str, x, baseLine, textPaint);
+            // 绘制文字，位置均来自缓存的位置表
+            // 滚动时只绘制与可见区域相交的字符
+            float baseLine = glyphLayout.getBaseline();
+            int first = 0;
+            int last = glyphLayout.getCount() - 1;
+            if (scrolling) {
+                first = glyphLayout.slotAt(scrollOffset);
+                last = Math.min(last, glyphLayout.slotAt(scrollOffset + viewportWidth));
             }
+            char[] instead = glyphLayout.getInstead();
+            char[] chars = buffer.array();
+            for (int i = first; i <= last; i++) {
+                if (null != instead)
+                    canvas.drawText(instead, 0, instead.length, contentX + glyphLayout.getGlyphX(i), baseLine, textPaint);
+                else
+                    canvas.drawText(chars, i, 1, contentX + glyphLayout.getGlyphX(i), baseLine, textPaint);
+            }
+
+            if (scrolling)
+                canvas.restoreToCount(saveCount);
         }
     }
 
     /**
-     * 添加一个字符，字符达到最大值后，不做任何操作
+     * 依次添加字符串中的每个字符，每个字符占一个方块，字符达到最大值后，超出的部分不添加，
+     * 动画进行中的输入不会丢弃，动画会合并为一次，直接朝最终长度播放。
+     * 字符按UTF-16单元保存，代理对（例如emoji）会占两个方块
      *
-     * @param str 要添加的字符
+     * @param str 要添加的字符串
      */
     public void add(String str) {
-        if (TextUtils.isEmpty(str) || dataList.size() >= textMax)
+        if (TextUtils.isEmpty(str))
             return;
 
-        if (null != dataList && (curAction == ACTION_ADD || curAction == ACTION_IDLE)) {
-            curAction = ACTION_ADD;
-            dataList.add(str);
-            startAnimation();
+        int len = str.length();
+        for (int i = 0; i < len; i++)
+            add(str.charAt(i));
+    }
+
+    /**
+     * 添加一个字符，字符达到最大值后，不做任何操作，不产生新对象
+     *
+     * @param c 要添加的字符
+     */
+    public void add(char c) {
+        boolean wasFill = isFillState();
+        boolean wasTinted = isTinted();
+        int oldLen = curLen;
+        if (buffer.add(c)) {
+            int index = buffer.size() - 1;
+            for (InputValidator validator : validators)
+                validator.onAdd(index, c);
+            updateValidity();
+            updateGlyphLayout();
+            startAnimation(ACTION_ADD);
+            invalidateChange(wasFill, oldLen, index);
+            if (wasTinted != isTinted())
+                invalidate();
+            onTextChange();
         }
     }
 
     /**
-     * 删除当前最后一个字符，字符达到最小值后，不做任何操作
+     * 删除当前最后一个字符，字符达到最小值后，不做任何操作，
+     * 动画进行中的删除不会丢弃，动画会合并为一次，直接朝最终长度播放
      */
     public void remove() {
-        if (null == dataList || dataList.size() <= 0)
+        boolean wasFill = isFillState();
+        boolean wasTinted = isTinted();
+        int oldLen = curLen;
+        int index = buffer.size() - 1;
+        if (index < 0)
+            return;
+
+        char c = buffer.charAt(index);
+        buffer.remove();
+        for (InputValidator validator : validators)
+            validator.onRemove(index, c);
+        updateValidity();
+        updateGlyphLayout();
+        startAnimation(ACTION_REMOVE);
+        invalidateChange(wasFill, oldLen, index);
+        if (wasTinted != isTinted())
+            invalidate();
+        onTextChange();
+    }
+
+    /**
+     * 设置全部字符，只播放一次动画
+     *
+     * @param text 要设置的字符，长度不能超过最大个数
+     */
+    public void setText(CharSequence text) {
+        setText(text, true);
+    }
+
+    /**
+     * 设置全部字符，数据一次性更新，只重绘一次
+     *
+     * @param text    要设置的字符，长度不能超过最大个数
+     * @param animate true为从当前位置播放一次动画，false为直接显示结果
+     */
+    public void setText(CharSequence text, boolean animate) {
+        if (null != text && text.length() > textMax)
+            throw new IllegalArgumentException("Length of text must not be greater than textMax(" + textMax + ").");
+        // 传入的是getText()返回的视图时内容不变
+        if (text == buffer.text())
             return;
 
-        if (null != dataList && (curAction == ACTION_REMOVE || curAction == ACTION_IDLE)) {
-            curAction = ACTION_REMOVE;
-            dataList.remove(dataList.size() - 1);
-            startAnimation();
+        int oldSize = buffer.size();
+        boolean changed = !buffer.contentEquals(text);
+        buffer.clear();
+        if (null != text)
+            buffer.append(text);
+        onBulkChange(oldSize, animate, changed);
+    }
+
+    /**
+     * 在末尾添加多个字符，只播放一次动画
+     *
+     * @param text 要添加的字符，添加后的长度不能超过最大个数
+     */
+    public void append(CharSequence text) {
+        append(text, true);
+    }
+
+    /**
+     * 在末尾添加多个字符，数据一次性更新，只重绘一次
+     *
+     * @param text    要添加的字符，添加后的长度不能超过最大个数
+     * @param animate true为从当前位置播放一次动画，false为直接显示结果
+     */
+    public void append(CharSequence text, boolean animate) {
+        if (TextUtils.isEmpty(text))
+            return;
+
+        int oldSize = buffer.size();
+        if (!buffer.append(text))
+            throw new IllegalArgumentException("Length of text must not be greater than textMax(" + textMax + ").");
+        onBulkChange(oldSize, animate, true);
+    }
+
+    /**
+     * 清空所有字符，只播放一次动画
+     */
+    public void clear() {
+        clear(true);
+    }
+
+    /**
+     * 清空所有字符，只重绘一次
+     *
+     * @param animate true为从当前位置播放一次动画，false为直接显示结果
+     */
+    public void clear(boolean animate) {
+        int oldSize = buffer.size();
+        buffer.clear();
+        onBulkChange(oldSize, animate, oldSize > 0);
+    }
+
+    /**
+     * 一次改变多个字符后更新位置表，最多播放一次动画并重绘一次
+     *
+     * @param oldSize 改变前的字符个数
+     * @param animate true为播放动画
+     * @param changed 内容是否改变，未改变时不通知
+     */
+    private void onBulkChange(int oldSize, boolean animate, boolean changed) {
+        revalidate();
+        if (changed)
+            onTextChange();
+        updateGlyphLayout();
+        int size = buffer.size();
+        if (!animate) {
+            frameClock.cancel();
+            animator.cancel();
+            curLen = glyphLayout.lengthOf(size);
+            updateScroll();
+        } else if (size == oldSize + 1) {
+            startAnimation(ACTION_ADD);
+        } else if (size == oldSize - 1) {
+            startAnimation(ACTION_REMOVE);
+        } else if (size != oldSize) {
+            startAnimation(ACTION_SET);
         }
+        invalidate();
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (keyCode == KeyEvent.KEYCODE_DEL) {
+            beginKey(event);
+            remove();
+            endKey();
+            return true;
+        }
+
+        int c = keyChar(keyCode, event);
+        if (c >= 0) {
+            beginKey(event);
+            add((char) c);
+            endKey();
+            return true;
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    public boolean onKeyUp(int keyCode, KeyEvent event) {
+        if (keyCode == KeyEvent.KEYCODE_DEL || keyChar(keyCode, event) >= 0)
+            return true;
+
+        return super.onKeyUp(keyCode, event);
+    }
+
+    /**
+     * 按键对应的字符，数字键及小键盘数字键直接转换，其他按键使用按键映射的可见字符
+     *
+     * @return 字符，-1为不处理的按键
+     */
+    private static int keyChar(int keyCode, KeyEvent event) {
+        if (keyCode >= KeyEvent.KEYCODE_0 && keyCode <= KeyEvent.KEYCODE_9)
+            return '0' + keyCode - KeyEvent.KEYCODE_0;
+        if (keyCode >= KeyEvent.KEYCODE_NUMPAD_0 && keyCode <= KeyEvent.KEYCODE_NUMPAD_9)
+            return '0' + keyCode - KeyEvent.KEYCODE_NUMPAD_0;
+
+        // 组合键的标记位超出char的范围，不处理
+        int c = event.getUnicodeChar();
+        return isInputChar(c) ? c : -1;
+    }
+
+    /**
+     * 是否为可输入的字符，空白及控制字符不输入，实体键盘与输入法使用相同的规则
+     *
+     * @param c 字符
+     * @return true为可输入
+     */
+    static boolean isInputChar(int c) {
+        return c > ' ' && c <= Character.MAX_VALUE && !Character.isISOControl(c);
+    }
+
+    /**
+     * 实体键盘从按键按下开始统计延迟
+     */
+    private void beginKey(KeyEvent event) {
+        if (null != metrics)
+            metrics.beginKey(event.getEventTime());
+    }
+
+    private void endKey() {
+        if (null != metrics)
+            metrics.endKey();
+    }
+
+    @Override
+    public boolean onCheckIsTextEditor() {
+        return true;
+    }
+
+    @Override
+    public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+        outAttrs.inputType = imeInputType;
+        outAttrs.imeOptions = EditorInfo.IME_ACTION_DONE | EditorInfo.IME_FLAG_NO_EXTRACT_UI
+                | EditorInfo.IME_FLAG_NO_FULLSCREEN;
+        return new EasyInputConnection(this);
+    }
+
+    /**
+     * 设置弹出输入法时的输入类型，下次连接输入法时生效。
+     * 触摸模式下视图默认不能获取焦点，输入法无法连接，需要通过{@link #showSoftInput()}弹出
+     *
+     * @param inputType InputType中的类型，默认为InputType.TYPE_CLASS_NUMBER
+     */
+    public void setImeInputType(int inputType) {
+        this.imeInputType = inputType;
+    }
+
+    /**
+     * 弹出系统输入法，用于不使用EasyKeyboard的情况。
+     * 会开启setFocusableInTouchMode(true)以便在触摸模式下获取焦点，
+     * 之后第一次点击视图时获取焦点，而不是直接触发点击事件
+     *
+     * @return true为已请求弹出
+     */
+    public boolean showSoftInput() {
+        setFocusableInTouchMode(true);
+        if (!requestFocus())
+            return false;
+
+        InputMethodManager imm = (InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE);
+        return null != imm && imm.showSoftInput(this, 0);
+    }
+
+    /**
+     * 添加一个字符，可在任意线程调用，如读卡器或NFC回调线程，
+     * 输入按提交顺序在UI线程中生效，同一时间内的多次提交合并为一次动画和重绘
+     *
+     * @param c 要添加的字符
+     */
+    public void postAdd(char c) {
+        ingestor.offerAdd(c);
+    }
+
+    /**
+     * 删除当前最后一个字符，可在任意线程调用，
+     * 输入按提交顺序在UI线程中生效，同一时间内的多次提交合并为一次动画和重绘
+     */
+    public void postRemove() {
+        ingestor.offerRemove();
+    }
+
+    /**
+     * 在UI线程中处理其他线程提交的输入
+     */
+    private void drainPending() {
+        int oldSize = buffer.size();
+        if (ingestor.drainTo(buffer) > 0)
+            onBulkChange(oldSize, true, true);
     }
 
     /**
      * 获取已输入的字符
      *
-     * @return 已输入的字符List
+     * @return 已输入字符的只读视图，内容随输入变化，需要保存时请复制
      */
+    public CharSequence getText() {
+        return buffer.text();
+    }
+
+    /**
+     * 复制已输入的字符，不产生新对象
+     *
+     * @param dst 目标数组，长度不足时只复制能放下的部分
+     * @return 复制的字符个数
+     */
+    public int copyText(char[] dst) {
+        return buffer.copyTo(dst);
+    }
+
+    /**
+     * 获取已输入的字符
+     *
+     * @return 已输入字符的List副本，修改不会影响输入框
+     * @deprecated 每次调用都会创建新的List，请使用{@link #getText()}或{@link #copyText(char[])}
+     */
+    @Deprecated
     public List<String> getDataList() {
-        return dataList;
+        int size = buffer.size();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add(String.valueOf(buffer.charAt(i)));
+        return list;
     }
 
     /**
@@ -261,10 +684,471 @@ public class EasyInputView extends View {
      * @return 当前字符长度
      */
     public int getCurLength() {
-        if (null == dataList || dataList.size() <= 0)
+        if (buffer.size() <= 0)
             return -1;
 
-        return dataList.size();
+        return buffer.size();
+    }
+
+    /**
+     * 添加校验器，添加时按已输入的字符初始化，之后每次增删字符只更新一次
+     *
+     * @param validator 校验器，例如LuhnValidator，Mod97Validator
+     */
+    public void addValidator(InputValidator validator) {
+        if (null == validator)
+            throw new IllegalArgumentException("validator must not be null.");
+
+        InputValidator[] newValidators = new InputValidator[validators.length + 1];
+        System.arraycopy(validators, 0, newValidators, 0, validators.length);
+        newValidators[validators.length] = validator;
+        validators = newValidators;
+        validator.reset();
+        int size = buffer.size();
+        for (int i = 0; i < size; i++)
+            validator.onAdd(i, buffer.charAt(i));
+        updateValidity();
+        invalidate();
+    }
+
+    /**
+     * 移除校验器
+     *
+     * @param validator 要移除的校验器
+     */
+    public void removeValidator(InputValidator validator) {
+        for (int i = 0; i < validators.length; i++) {
+            if (validators[i] == validator) {
+                InputValidator[] newValidators = validators.length == 1 ? NO_VALIDATORS
+                        : new InputValidator[validators.length - 1];
+                System.arraycopy(validators, 0, newValidators, 0, i);
+                System.arraycopy(validators, i + 1, newValidators, i, validators.length - i - 1);
+                validators = newValidators;
+                updateValidity();
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前内容是否通过所有校验器，未添加校验器时总是有效
+     *
+     * @return true为有效
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 设置输入满后校验失败时文字、填充及底部线条的颜色，只需要重绘
+     *
+     * @param invalidColor 校验失败时的颜色，-1为不改变颜色
+     */
+    public void setInvalidColor(int invalidColor) {
+        if (this.invalidColor == invalidColor)
+            return;
+
+        this.invalidColor = invalidColor;
+        updateStyle();
+        invalidate();
+    }
+
+    private void updateValidity() {
+        boolean valid = true;
+        for (InputValidator validator : validators) {
+            if (!validator.isValid()) {
+                valid = false;
+                break;
+            }
+        }
+        this.valid = valid;
+    }
+
+    /**
+     * 一次改变多个字符后，按当前的全部字符重新计算校验状态
+     */
+    private void revalidate() {
+        if (validators.length == 0)
+            return;
+
+        int size = buffer.size();
+        for (InputValidator validator : validators) {
+            validator.reset();
+            for (int i = 0; i < size; i++)
+                validator.onAdd(i, buffer.charAt(i));
+        }
+        updateValidity();
+    }
+
+    /**
+     * 是否使用校验失败的颜色，只在输入满后提示，避免输入过程中一直显示为无效
+     *
+     * @return true为使用校验失败的颜色
+     */
+    private boolean isTinted() {
+        return !valid && null != invalidStyle && buffer.size() == textMax;
+    }
+
+    /**
+     * 设置耗时统计，可以与EasyKeyboard使用同一个对象，以统计按键到显示的延迟
+     *
+     * @param metrics 耗时统计，为null时不统计
+     */
+    public void setMetrics(EasyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 清空内容并结束动画，用于复用视图，例如在RecyclerView中回收时调用，不产生新对象
+     */
+    public void reset() {
+        frameClock.cancel();
+        animator.cancel();
+        ingestor.discard();
+        boolean changed = buffer.size() > 0;
+        buffer.clear();
+        revalidate();
+        if (changed)
+            onTextChange();
+        updateGlyphLayout();
+        curLen = 0;
+        scrollOffset = 0;
+        invalidate();
+    }
+
+    /**
+     * 释放缓存的线条图层，例如视图不再使用时调用，之后如果再次绘制会重新创建。
+     * 图层在尺寸或颜色改变时会自动重建，移出窗口时不会释放
+     */
+    public void release() {
+        chromeCache.release();
+    }
+
+    /**
+     * 恢复内容及动画进度，用于复用视图，例如在RecyclerView中绑定数据时调用。
+     * 正在进行的动画会被取消，调用过程中不产生新对象
+     *
+     * @param state 要恢复的状态，超出最大个数的字符不显示
+     */
+    public void bind(State state) {
+        frameClock.cancel();
+        animator.cancel();
+        ingestor.discard();
+        boolean changed = !buffer.contentEquals(state.chars, 0, state.length);
+        buffer.clear();
+        buffer.append(state.chars, 0, state.length);
+        revalidate();
+        if (changed)
+            onTextChange();
+        updateGlyphLayout();
+
+        int target = glyphLayout.lengthOf(buffer.size());
+        if (state.fillLength >= 0 && state.fillLength != target) {
+            // 动画未结束，从保存的进度继续播放
+            curLen = state.fillLength;
+            animator.start(curLen, target, ANIM_DURATION);
+            frameClock.postFrame();
+        } else {
+            curLen = target;
+        }
+        updateScroll();
+        invalidate();
+    }
+
+    /**
+     * 保存当前的内容及动画进度
+     *
+     * @param out 保存的目标，为null时创建新的对象，容量足够时不产生新对象
+     * @return 保存后的状态
+     */
+    public State saveState(State out) {
+        if (null == out)
+            out = new State();
+        out.ensureCapacity(buffer.size());
+        out.length = buffer.copyTo(out.chars);
+        out.fillLength = animator.isRunning() ? curLen : -1;
+        return out;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState ss = new SavedState(super.onSaveInstanceState());
+        ss.state = saveState(null);
+        return ss;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        SavedState ss = (SavedState) state;
+        super.onRestoreInstanceState(ss.getSuperState());
+        bind(ss.state);
+    }
+
+    /**
+     * 设置文字大小，需要重新测量
+     *
+     * @param textSize 文字大小，单位px
+     */
+    public void setTextSize(int textSize) {
+        if (this.textSize == textSize)
+            return;
+
+        this.textSize = textSize;
+        updateStyle();
+        glyphLayout.invalidateGlyphs();
+        resolveSingleSize();
+        updateBaseline(getHeight());
+        relayout();
+    }
+
+    /**
+     * 设置文字颜色，只需要重绘
+     *
+     * @param textColor 文字颜色
+     */
+    public void setTextColor(int textColor) {
+        if (this.textColor == textColor)
+            return;
+
+        this.textColor = textColor;
+        updateStyle();
+        invalidate();
+    }
+
+    /**
+     * 设置文字在填充状态时的颜色，只需要重绘
+     *
+     * @param textFillColor 文字在填充状态时的颜色
+     */
+    public void setTextFillColor(int textFillColor) {
+        if (this.textFillColor == textFillColor)
+            return;
+
+        this.textFillColor = textFillColor;
+        updateStyle();
+        invalidate();
+    }
+
+    /**
+     * 设置填充颜色，只需要重绘
+     *
+     * @param fillColor 填充颜色
+     */
+    public void setFillColor(int fillColor) {
+        if (this.fillColor == fillColor)
+            return;
+
+        this.fillColor = fillColor;
+        updateStyle();
+        invalidate();
+    }
+
+    /**
+     * 设置底部线条颜色，只需要重绘，线条图层在下次绘制时更新
+     *
+     * @param strokeColor     底部线条颜色，-1为不显示线条
+     * @param strokeFillColor 底部线条填充时颜色，-1为与strokeColor相同
+     */
+    public void setStrokeColor(int strokeColor, int strokeFillColor) {
+        if (this.strokeColor == strokeColor && this.strokeFillColor == strokeFillColor)
+            return;
+
+        boolean heightChanged = (this.strokeColor == -1) != (strokeColor == -1);
+        this.strokeColor = strokeColor;
+        this.strokeFillColor = strokeFillColor;
+        if (heightChanged)
+            requestLayout();
+        invalidate();
+    }
+
+    /**
+     * 设置底部线条粗细及相对于字符的间隔，需要重新测量
+     *
+     * @param strokeWidth   底部线条粗细，单位px
+     * @param strokePadding 底部线条相对于字符的间隔，单位px
+     */
+    public void setStroke(int strokeWidth, int strokePadding) {
+        if (this.strokeWidth == strokeWidth && this.strokePadding == strokePadding)
+            return;
+
+        this.strokeWidth = strokeWidth;
+        this.strokePadding = strokePadding;
+        updateBaseline(getHeight());
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * 设置单个方块的宽高，需要重新测量
+     *
+     * @param singleWidth  单个方块宽，小于2倍文字宽时使用2倍文字宽
+     * @param singleHeight 单个方块高，小于文字高时使用文字高
+     */
+    public void setSingleSize(int singleWidth, int singleHeight) {
+        if (requestedSingleWidth == singleWidth && requestedSingleHeight == singleHeight)
+            return;
+
+        requestedSingleWidth = singleWidth;
+        requestedSingleHeight = singleHeight;
+        resolveSingleSize();
+        relayout();
+    }
+
+    /**
+     * 设置最多输入个数，超出部分的字符会被删除，需要重新测量
+     *
+     * @param textMax 最多输入个数
+     */
+    public void setTextMax(int textMax) {
+        if (textMax <= 0)
+            throw new IllegalArgumentException("textMax must be greater than 0.");
+        if (this.textMax == textMax)
+            return;
+
+        this.textMax = textMax;
+        int oldSize = buffer.size();
+        buffer.setMax(textMax);
+        relayout();
+        // 超出部分的字符被删除时内容改变，否则只有是否输入满可能改变
+        if (buffer.size() != oldSize)
+            onTextChange();
+        else
+            onTextStateChange();
+    }
+
+    /**
+     * 设置模式，需要重新测量
+     *
+     * @param textMode MODE_NORMAL或者MODE_SEPARATE
+     */
+    public void setTextMode(int textMode) {
+        if (textMode != MODE_NORMAL && textMode != MODE_SEPARATE)
+            throw new IllegalArgumentException("textMode must be MODE_NORMAL or MODE_SEPARATE.");
+        if (this.textMode == textMode)
+            return;
+
+        this.textMode = textMode;
+        relayout();
+    }
+
+    /**
+     * 设置分离模式下的分隔，需要重新测量
+     *
+     * @param separateNum   每多少字符进行一次分隔
+     * @param separateWidth 间隔的距离，单位px
+     */
+    public void setSeparate(int separateNum, int separateWidth) {
+        if (separateNum <= 0)
+            throw new IllegalArgumentException("separateNum must be greater than 0.");
+        // 设置过分组规则时，即使个数和间隔不变也需要恢复为按separateNum分隔
+        if (this.separateNum == separateNum && this.separateWidth == separateWidth && null == separatePattern)
+            return;
+
+        this.separateNum = separateNum;
+        this.separateWidth = separateWidth;
+        this.separatePattern = null;
+        if (textMode == MODE_SEPARATE)
+            relayout();
+    }
+
+    /**
+     * 设置分离模式下的分组规则，例如美国运通卡为4,6,5，电话号码为3,3,4，
+     * 规则用完后按最后一组的个数继续分组，需要重新测量
+     *
+     * @param groups 每组的字符个数，为null时恢复为每separateNum个字符分隔一次
+     */
+    public void setSeparatePattern(int... groups) {
+        if (null != groups)
+            SeparatePattern.check(groups);
+        separatePattern = null != groups ? groups.clone() : null;
+        if (textMode == MODE_SEPARATE)
+            relayout();
+    }
+
+    /**
+     * 设置填充模式，只需要重绘
+     *
+     * @param fillMode FILL_MODE_NORMAL，FILL_MODE_ALWAYS或者FILL_MODE_NONE
+     */
+    public void setFillMode(int fillMode) {
+        if (fillMode != FILL_MODE_NORMAL && fillMode != FILL_MODE_ALWAYS && fillMode != FILL_MODE_NONE)
+            throw new IllegalArgumentException("fillMode must be FILL_MODE_NORMAL, FILL_MODE_ALWAYS or FILL_MODE_NONE.");
+        if (this.fillMode == fillMode)
+            return;
+
+        this.fillMode = fillMode;
+        invalidate();
+    }
+
+    /**
+     * 设置替代的文字，只需要重新计算文字位置并重绘
+     *
+     * @param textInstead 替代的文字，例如用于密码输入可以设置为 "*"，为空时显示原字符
+     */
+    public void setTextInstead(String textInstead) {
+        if (TextUtils.equals(this.textInstead, textInstead))
+            return;
+
+        this.textInstead = textInstead;
+        glyphLayout.setInstead(TextUtils.isEmpty(textInstead) ? null : textInstead.toCharArray());
+        updateGlyphLayout();
+        invalidate();
+    }
+
+    /**
+     * 设置最多显示的方块个数，超出部分横向滚动，需要重新测量
+     *
+     * @param visibleMax 最多显示的方块个数，0为全部显示
+     */
+    public void setVisibleMax(int visibleMax) {
+        if (this.visibleMax == visibleMax)
+            return;
+
+        this.visibleMax = visibleMax;
+        requestLayout();
+        invalidate();
+    }
+
+    private void updateStyle() {
+        style = InputStyle.obtain(textSize, textColor, textFillColor, fillColor);
+        invalidStyle = invalidColor != -1 ? InputStyle.obtain(textSize, invalidColor, textFillColor, invalidColor) : null;
+    }
+
+    /**
+     * 根据设置的宽高及文字大小计算方块实际的宽高
+     */
+    private void resolveSingleSize() {
+        int textWidth = style.textWidth;
+        int textHeight = style.textHeight;
+        singleWidth = requestedSingleWidth < textWidth * 2 ? textWidth * 2 : requestedSingleWidth;
+        singleHeight = requestedSingleHeight < textHeight ? textHeight : requestedSingleHeight;
+    }
+
+    private void updateSlots() {
+        int[] groups = null;
+        if (textMode == MODE_SEPARATE)
+            groups = null != separatePattern ? separatePattern : new int[]{separateNum};
+        glyphLayout.setSlots(textMax, singleWidth, groups, separateWidth);
+    }
+
+    /**
+     * 方块的尺寸或个数改变后重新计算位置表并重新测量，正在进行的动画直接结束
+     */
+    private void relayout() {
+        frameClock.cancel();
+        animator.cancel();
+        updateSlots();
+        revalidate();
+        updateGlyphLayout();
+        curLen = glyphLayout.lengthOf(buffer.size());
+        requestLayout();
+        invalidate();
     }
 
     /**
@@ -276,44 +1160,307 @@ public class EasyInputView extends View {
         return textMax;
     }
 
-    private void startAnimation() {
-        new Thread(new Runnable() {
-            private int nowLen;
-            private float dir;
+    /**
+     * 是否处于填充状态，填充状态下使用填充颜色绘制线条和文字
+     *
+     * @return true为填充状态
+     */
+    private boolean isFillState() {
+        int size = buffer.size();
+        return size > 0 &&
+                (fillMode == FILL_MODE_ALWAYS || size < textMax || startX + curLen < contentWidth);
+    }
 
-            @Override
-            public void run() {
-                int size = dataList.size();
+    /**
+     * 字符增删后重绘，颜色切换时整体重绘，否则只重绘填充变化的部分和增删的字符
+     *
+     * @param wasFill 改变前是否处于填充状态
+     * @param oldLen  改变前的填充长度
+     * @param slot    增删的字符位置
+     */
+    private void invalidateChange(boolean wasFill, int oldLen, int slot) {
+        int oldScroll = scrollOffset;
+        updateScroll();
+        if (wasFill != isFillState() || oldScroll != scrollOffset) {
+            invalidate();
+            return;
+        }
+
+        int left = Math.min(glyphLayout.getSlotLeft(slot), glyphLayout.getGlyphX(slot));
+        int right = Math.max(glyphLayout.lengthOf(slot + 1),
+                glyphLayout.getGlyphX(slot) + glyphLayout.getGlyphWidth(slot));
+        invalidateBand(oldLen, curLen, left, right);
+    }
+
+    /**
+     * 重绘内容中两段长度范围所覆盖的竖直区域
+     */
+    private void invalidateBand(int from1, int to1, int from2, int to2) {
+        int left = Math.min(Math.min(from1, to1), Math.min(from2, to2));
+        int right = Math.max(Math.max(from1, to1), Math.max(from2, to2));
+        if (left < right)
+            invalidate(startX - scrollOffset + left, 0, startX - scrollOffset + right, getHeight());
+    }
+
+    /**
+     * 根据当前填充长度更新滚动距离，保持正在输入的方块可见
+     */
+    private void updateScroll() {
+        int maxScroll = contentWidth - viewportWidth;
+        if (maxScroll <= 0) {
+            scrollOffset = 0;
+            return;
+        }
+
+        int end = Math.min(curLen + singleWidth, contentWidth);
+        scrollOffset = Math.max(0, Math.min(end - viewportWidth, maxScroll));
+    }
+
+    private void updateGlyphLayout() {
+        glyphLayout.update(buffer, measurer);
+    }
+
+    /**
+     * 获取文字测量次数，用于确认动画帧中没有重复测量
+     *
+     * @return 文字测量次数
+     */
+    int getMeasureCount() {
+        return glyphLayout.getMeasureCount();
+    }
+
+    private void startAnimation(int action) {
+        int nowLen = glyphLayout.lengthOf(buffer.size());
+
+        // 动画进行中时从当前位置继续，把连续的输入合并为一次动画
+        if (!animator.isRunning()) {
+            if (null != metrics)
+                metrics.onAnimationStart();
+            if (action == ACTION_ADD)
+                curLen = nowLen - singleWidth;
+            else if (action == ACTION_REMOVE)
+                curLen = nowLen + singleWidth;
+        }
+
+        animator.start(curLen, nowLen, ANIM_DURATION);
+        frameClock.postFrame();
+    }
+
+    /**
+     * 取消正在进行的动画，填充长度直接停在目标值
+     */
+    private void cancelAnimation() {
+        frameClock.cancel();
+        if (animator.isRunning()) {
+            animator.cancel();
+            curLen = animator.getValue();
+            updateScroll();
+            invalidate();
+        }
+    }
+
+    private void doAnimationFrame(long frameTimeNanos) {
+        boolean wasFill = isFillState();
+        int oldLen = curLen;
+        int oldScroll = scrollOffset;
+        boolean running = animator.update(frameTimeNanos);
+        curLen = animator.getValue();
+        updateScroll();
+        if (null != metrics)
+            metrics.onAnimationFrame(frameTimeNanos);
+
+        // 颜色切换时（例如FILL_MODE_NORMAL填满后填充色消失）或者发生滚动时需要整体重绘，否则只重绘变化的区域
+        if (wasFill != isFillState() || oldScroll != scrollOffset)
+            invalidate();
+        else
+            invalidateBand(oldLen, curLen, oldLen, curLen);
+
+        if (running)
+            frameClock.postFrame();
+    }
+
+    /**
+     * 内容改变后在下一帧通知，同一帧内的多次改变只通知一次最终的状态
+     */
+    private void onTextChange() {
+        textVersion++;
+        if (null != metrics)
+            metrics.onInputChanged();
+        onTextStateChange();
+    }
+
+    /**
+     * 内容未改变，但是否输入满或者是否为空可能改变时，在下一帧通知
+     */
+    private void onTextStateChange() {
+        if (null != onTextChangeListener)
+            notifyClock.postFrame();
+    }
 
-                nowLen = dataList.size() * singleWidth;
-                if (textMode == MODE_SEPARATE)
-                    nowLen += ((size - 1) / separateNum) * separateWidth;
+    private void dispatchTextChange() {
+        if (null == onTextChangeListener)
+            return;
 
-                dir = Math.signum(nowLen - curLen);
+        int size = buffer.size();
+        boolean full = size >= textMax;
+        boolean empty = size == 0;
+        if (notifiedVersion != textVersion) {
+            notifiedVersion = textVersion;
+            onTextChangeListener.onTextChanged(this, buffer.text());
+        }
+        if (notifiedFull != full) {
+            notifiedFull = full;
+            onTextChangeListener.onTextFull(this, full);
+        }
+        if (notifiedEmpty != empty) {
+            notifiedEmpty = empty;
+            onTextChangeListener.onTextEmpty(this, empty);
+        }
+    }
 
-                if (dir > 0)
-                    curLen = nowLen - singleWidth;
-                else if (dir < 0)
-                    curLen = nowLen + singleWidth;
+    /**
+     * 监听内容改变的接口，在UI线程中回调，同一帧内的多次改变合并为一次回调
+     */
+    public interface onTextChangeListener {
+        /**
+         * 当内容改变时回调
+         *
+         * @param view 输入框
+         * @param text 改变后的内容，为只读视图，需要保存时请复制
+         */
+        public void onTextChanged(EasyInputView view, CharSequence text);
 
-                while ((dir > 0 && curLen < nowLen) || (dir < 0 && curLen > nowLen)) {
-                    try {
-                        curLen = (int) (curLen + dir * speed);
+        /**
+         * 当输入满或者不再满时回调
+         *
+         * @param view 输入框
+         * @param full true为已输入满
+         */
+        public void onTextFull(EasyInputView view, boolean full);
 
-                        if ((dir > 0 && curLen > nowLen) || (dir < 0 && curLen < nowLen))
-                            curLen = nowLen;
+        /**
+         * 当内容变为空或者不再为空时回调
+         *
+         * @param view  输入框
+         * @param empty true为内容为空
+         */
+        public void onTextEmpty(EasyInputView view, boolean empty);
+    }
 
-                        Thread.sleep(20);
+    private onTextChangeListener onTextChangeListener;
 
-                        postInvalidate();
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
+    /**
+     * 设置监听内容改变的接口，设置时按当前内容立即回调一次
+     *
+     * @param onTextChangeListener 监听内容改变的接口，为null时不监听
+     */
+    public void setOnTextChangeListener(onTextChangeListener onTextChangeListener) {
+        this.onTextChangeListener = onTextChangeListener;
+        notifyClock.cancel();
+        if (null != onTextChangeListener) {
+            notifiedVersion = textVersion - 1;
+            notifiedFull = buffer.size() < textMax;
+            notifiedEmpty = buffer.size() != 0;
+            dispatchTextChange();
+        }
+    }
 
-                if (curLen == nowLen)
-                    curAction = ACTION_IDLE;
+    /**
+     * 输入框的内容及动画进度，可重复使用，用于复用视图及保存状态
+     */
+    public static class State {
+        private char[] chars;
+        private int length;
+        // 动画中的填充长度，-1为没有正在进行的动画
+        private int fillLength = -1;
+
+        public State() {
+            chars = new char[0];
+        }
+
+        /**
+         * @param text 内容
+         */
+        public State(CharSequence text) {
+            this();
+            setText(text);
+        }
+
+        /**
+         * 设置内容，容量足够时不产生新对象
+         *
+         * @param text 内容
+         */
+        public void setText(CharSequence text) {
+            int len = null == text ? 0 : text.length();
+            ensureCapacity(len);
+            for (int i = 0; i < len; i++)
+                chars[i] = text.charAt(i);
+            length = len;
+            fillLength = -1;
+        }
+
+        /**
+         * 获取内容的长度
+         *
+         * @return 内容的长度
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * 获取某一位置的字符
+         *
+         * @param index 位置
+         * @return 字符
+         */
+        public char charAt(int index) {
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+            return chars[index];
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (chars.length < capacity)
+                chars = new char[capacity];
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+        State state;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            state = new State();
+            state.chars = in.createCharArray();
+            state.length = state.chars.length;
+            state.fillLength = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            char[] chars = new char[state.length];
+            System.arraycopy(state.chars, 0, chars, 0, state.length);
+            out.writeCharArray(chars);
+            out.writeInt(state.fillLength);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
             }
-        }).start();
+        };
     }
 }
@@ -1,7 +1,12 @@
 package com.hzn.easyinputview;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ObjectAnimator;
+import android.animation.PropertyValuesHolder;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -14,18 +19,14 @@ import android.util.TypedValue;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.AlphaAnimation;
+import android.view.ViewConfiguration;
 import android.view.animation.Animation;
-import android.view.animation.AnimationSet;
-import android.view.animation.TranslateAnimation;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.BitSet;
 
 /**
- * 九宫格虚拟键盘，宽度默认为match_parent，高度可设置
+ * 虚拟键盘，默认为九宫格数字键盘，可通过ekbLayout设置res/xml中的布局，宽度默认为match_parent，高度可设置
  * Created by huzn on 2016/11/11.
  */
 public class EasyKeyboard extends View {
@@ -65,35 +66,66 @@ public class EasyKeyboard extends View {
     private Drawable backDrawable;
     // 初始化时的状态，默认STATE_HIDE
     private int initState;
-
-    private Rect keyDrawableRect;
-    private Rect backDrawableRect;
+    // 隐藏方式，默认HIDE_MODE_COLLAPSE
+    private int hideMode;
+    // 触摸阈值，按下后移动距离在阈值内时不取消，默认为系统的touch slop
+    private int touchSlop;
+    // 迟滞距离，按下的按键边界向外扩展的距离，移出扩展后的边界才取消，默认8dp
+    private int touchHysteresis;
+
+    // 键盘布局，同一布局文件的所有键盘共用，默认R.xml.keyboard_number
+    private KeyboardLayout layout;
+    // 每个按键文字的绘制位置，尺寸或文字改变时重新计算
+    private float[] labelX;
+    private float[] labelY;
+    // 每个按键图标的位置，没有图标的按键为null
+    private Rect[] iconRects;
+
+    // 所有按键都未按下未禁用时的键盘图层，尺寸或文字改变时重新绘制，
+    // 每帧只需绘制图层，再绘制按下和禁用的按键
+    private Bitmap faceLayer;
+    private boolean faceDirty = true;
+    // 是否缓存键盘图层，默认缓存
+    private final boolean faceCache;
 
     private Paint paint;
     private TextPaint keyTextPaint;
     private TextPaint textPaint;
     private Paint.FontMetrics fm;
     private Paint.FontMetrics kFm;
-    private int textWidth;
-    private int textHeight;
 
     private int width;
     private int height;
-    private int w;
-    private int h;
     private Rect[] rects;
-    private int lines;
-    private int columns;
+    // 命中查找表，测量后根据rects建立
+    private KeyHitGrid hitGrid;
 
     /**
-     * 功能键
+     * 默认布局中的功能键
      */
     public static final int KEY_FUNC = 0;
     /**
-     * 回退键
+     * 默认布局中的回退键
      */
     public static final int KEY_BACK = 12;
 
+    /**
+     * 按键编码：无输入的按键
+     */
+    public static final int KEY_CODE_NONE = 0;
+    /**
+     * 按键编码：功能键
+     */
+    public static final int KEY_CODE_FUNC = -1;
+    /**
+     * 按键编码：回退键
+     */
+    public static final int KEY_CODE_BACK = -2;
+    /**
+     * 按键编码：清空键
+     */
+    public static final int KEY_CODE_CLEAR = -3;
+
     /**
      * 键盘显示数据，默认为如下：(其中右下角为固定的删除符号)
      * | 1  2  3
@@ -103,9 +135,15 @@ public class EasyKeyboard extends View {
      */
     private ArrayList<String> dataList;
 
-    private Map<Integer, Integer> pressedMap;
-
-    private ArrayList<Integer> disableList;
+    // 触摸点与按下按键的跟踪
+    private final TouchTracker touchTracker = new TouchTracker();
+    // 按下及禁用的按键，下标为按键下标
+    private BitSet pressedKeys;
+    private BitSet disabledKeys;
+    // 状态改变的按键所覆盖的区域，只重绘这部分
+    private final Rect dirtyRect = new Rect();
+    // setDisableKeys单独使用，监听器在触摸回调中调用时不会清掉触摸改变的区域
+    private final Rect disableDirtyRect = new Rect();
 
     /**
      * 状态：显示键盘
@@ -121,9 +159,30 @@ public class EasyKeyboard extends View {
     public static final int STATE_ANIM = 2;
     private int curState;
 
+    /**
+     * 隐藏方式：隐藏后测量尺寸为0，弹出和隐藏时父视图都需要重新布局
+     */
+    public static final int HIDE_MODE_COLLAPSE = 0;
+    /**
+     * 隐藏方式：隐藏后保持测量尺寸，只设置为INVISIBLE，弹出和隐藏时不需要重新布局
+     */
+    public static final int HIDE_MODE_INVISIBLE = 1;
+
+    // 默认动画移动的距离，单位px，以及动画时长
+    private static final float ANIM_OFFSET = 100.0f;
+    private static final long ANIM_DURATION = 150;
+    // 默认的弹出和隐藏动画，只创建一次，每次弹出和隐藏时复用
+    private ObjectAnimator showAnimator;
+    private ObjectAnimator hideAnimator;
+    // 自定义隐藏动画的监听，只创建一次
+    private Animation.AnimationListener hideAnimListener;
+
     // 与键盘绑定的输入视图，在弹出键盘时指定
     private View inputView;
 
+    // 耗时统计，默认为null不统计
+    private EasyMetrics metrics;
+
     public EasyKeyboard(Context context) {
         this(context, null);
     }
@@ -133,7 +192,15 @@ public class EasyKeyboard extends View {
     }
 
     public EasyKeyboard(Context context, AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, true);
+    }
+
+    /**
+     * @param faceCache 是否缓存键盘图层，不缓存时每帧绘制全部按键，用于基准测试中对比
+     */
+    EasyKeyboard(Context context, AttributeSet attrs, int defStyleAttr, boolean faceCache) {
         super(context, attrs, defStyleAttr);
+        this.faceCache = faceCache;
         TypedArray a = context.getTheme().obtainStyledAttributes(attrs, R.styleable.EasyKeyboard, defStyleAttr, 0);
         heightRatio = a.getFloat(R.styleable.EasyKeyboard_ekbHeightRatio, 0.33f);
         textSize = a.getDimensionPixelSize(R.styleable.EasyKeyboard_ekbTextSize, (int) TypedValue.applyDimension(
@@ -154,6 +221,12 @@ public class EasyKeyboard extends View {
         keyDrawable = a.getDrawable(R.styleable.EasyKeyboard_ekbFuncKeyDrawable);
         backDrawable = a.getDrawable(R.styleable.EasyKeyboard_ekbBackKeyDrawable);
         initState = a.getInteger(R.styleable.EasyKeyboard_ekbInitState, STATE_HIDE);
+        hideMode = a.getInteger(R.styleable.EasyKeyboard_ekbHideMode, HIDE_MODE_COLLAPSE);
+        int layoutId = a.getResourceId(R.styleable.EasyKeyboard_ekbLayout, R.xml.keyboard_number);
+        touchSlop = a.getDimensionPixelSize(R.styleable.EasyKeyboard_ekbTouchSlop,
+                ViewConfiguration.get(context).getScaledTouchSlop());
+        touchHysteresis = a.getDimensionPixelSize(R.styleable.EasyKeyboard_ekbTouchHysteresis, (int) TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_DIP, 8, getResources().getDisplayMetrics()));
         a.recycle();
 
         if (heightRatio < 0.25f)
@@ -174,85 +247,160 @@ public class EasyKeyboard extends View {
         fm = textPaint.getFontMetrics();
         kFm = keyTextPaint.getFontMetrics();
 
-        lines = 4;
-        columns = 3;
+        dataList = new ArrayList<>();
+        hitGrid = new KeyHitGrid();
+        touchTracker.setSlop(touchSlop);
+        touchTracker.setHysteresis(touchHysteresis);
+        applyLayout(KeyboardLayout.obtain(getResources(), layoutId));
 
-        int len = lines * columns + 1;
-        rects = new Rect[len];
-        for (int i = 0; i < len; i++)
-            rects[i] = new Rect();
+        curState = initState;
+        initAnimators();
+        if (curState == STATE_HIDE && hideMode == HIDE_MODE_INVISIBLE)
+            setVisibility(INVISIBLE);
+    }
 
-        // 默认显示的数据项
-        dataList = new ArrayList<>();
-        initDefaultDataList(len);
+    private void initAnimators() {
+        // 向上移动一段距离，且逐渐出现
+        showAnimator = ObjectAnimator.ofPropertyValuesHolder(this,
+                PropertyValuesHolder.ofFloat(View.TRANSLATION_Y, ANIM_OFFSET, 0.0f),
+                PropertyValuesHolder.ofFloat(View.ALPHA, 0.0f, 1.0f));
+        showAnimator.setDuration(ANIM_DURATION);
+
+        // 向下移动一段距离，且逐渐消失
+        hideAnimator = ObjectAnimator.ofPropertyValuesHolder(this,
+                PropertyValuesHolder.ofFloat(View.TRANSLATION_Y, 0.0f, ANIM_OFFSET),
+                PropertyValuesHolder.ofFloat(View.ALPHA, 1.0f, 0.0f));
+        hideAnimator.setDuration(ANIM_DURATION);
+        hideAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                onHideEnd();
+            }
+        });
 
-        pressedMap = new HashMap<>();
-        disableList = new ArrayList<>();
+        hideAnimListener = new Animation.AnimationListener() {
+            @Override
+            public void onAnimationStart(Animation animation) {
 
-        keyDrawableRect = new Rect();
-        backDrawableRect = new Rect();
+            }
 
-        curState = initState;
+            @Override
+            public void onAnimationEnd(Animation animation) {
+                onHideEnd();
+            }
+
+            @Override
+            public void onAnimationRepeat(Animation animation) {
+
+            }
+        };
     }
 
-    private void initDefaultDataList(int len) {
-        // 功能键
-        dataList.add("CONFIRM");
+    /**
+     * 设置键盘布局，布局文件只在第一次使用时解析，之后切换布局不需要重新解析，
+     * 按下及禁用状态会被清空，显示的数据项恢复为布局中的文字
+     *
+     * @param layoutId 布局文件的资源id，例如R.xml.keyboard_number，R.xml.keyboard_hex，R.xml.keyboard_pin
+     */
+    public void setLayout(int layoutId) {
+        KeyboardLayout layout = KeyboardLayout.obtain(getResources(), layoutId);
+        if (this.layout == layout)
+            return;
 
-        // 数字
-        for (int i = 0; i < len - 4; i++)
-            dataList.add("" + (i + 1));
+        applyLayout(layout);
+        requestLayout();
+        invalidate();
+    }
 
-        // 最后一行
-        dataList.add("");
-        dataList.add("0");
-        dataList.add("←");
+    private void applyLayout(KeyboardLayout layout) {
+        this.layout = layout;
+        int len = layout.getKeyCount();
+        rects = new Rect[len];
+        iconRects = new Rect[len];
+        for (int i = 0; i < len; i++) {
+            rects[i] = new Rect();
+            if (null != getIcon(layout.codes[i]))
+                iconRects[i] = new Rect();
+        }
+        // 按键位置在下次测量时计算，在此之前的触摸不能命中旧布局的按键
+        hitGrid.build(rects);
+        labelX = new float[len];
+        labelY = new float[len];
+        pressedKeys = new BitSet(len);
+        disabledKeys = new BitSet(len);
+
+        dataList.clear();
+        for (String label : layout.labels)
+            dataList.add(label);
+        reset();
+    }
+
+    /**
+     * 按键编码对应的图标
+     *
+     * @param code 按键编码
+     * @return 图标，没有时返回null
+     */
+    private Drawable getIcon(int code) {
+        if (code == KEY_CODE_FUNC)
+            return keyDrawable;
+        if (code == KEY_CODE_BACK)
+            return backDrawable;
+        return null;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseFace();
+        // 正在隐藏时直接结束，不再持有动画
+        if (hideAnimator.isRunning())
+            hideAnimator.end();
+        if (showAnimator.isRunning())
+            showAnimator.end();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         DisplayMetrics dm = getResources().getDisplayMetrics();
+        int funcRows = layout.getFuncRowCount();
+        int keyRows = layout.rowCount - funcRows;
         width = dm.widthPixels;
-        height = (int) (dm.heightPixels * heightRatio) + keyHeight;
-
-        // 第一个位置为功能键
-        rects[0].left = 0;
-        rects[0].top = 0;
-        rects[0].right = width;
-        rects[0].bottom = keyHeight;
-
-        w = width / columns;
-        h = (height - keyHeight) / lines;
-        for (int l = 0; l < lines; l++) {
-            for (int c = 0; c < columns; c++) {
-                int index = l * columns + c + 1;
-                rects[index].left = w * c;
-                rects[index].top = keyHeight + h * l;
-                rects[index].right = w * (c + 1);
-                rects[index].bottom = keyHeight + h * (l + 1);
-            }
-        }
-
-        textWidth = (int) textPaint.measureText("9");
-        textHeight = (int) (fm.bottom - fm.top);
+        height = (int) (dm.heightPixels * heightRatio) + keyHeight * funcRows;
 
-        if (null != keyDrawable) {
-            keyDrawableRect.left = width / 2 - keyDrawable.getIntrinsicWidth() / 2;
-            keyDrawableRect.top = keyHeight / 2 - keyDrawable.getIntrinsicHeight() / 2;
-            keyDrawableRect.right = width / 2 + keyDrawable.getIntrinsicWidth() / 2;
-            keyDrawableRect.bottom = keyHeight / 2 + keyDrawable.getIntrinsicHeight() / 2;
+        // 功能键行高度为keyHeight，其他行平分剩余高度，最后一列延伸到右边缘
+        int w = width / layout.columns;
+        int h = keyRows > 0 ? (height - keyHeight * funcRows) / keyRows : 0;
+        // 按键位置没有变化时不需要重新计算文字位置和重绘键盘图层
+        boolean changed = false;
+        for (int i = 0; i < rects.length; i++) {
+            int row = layout.rows[i];
+            int top = 0;
+            for (int r = 0; r < row; r++)
+                top += layout.funcRows[r] ? keyHeight : h;
+            int col = layout.cols[i] + layout.spans[i];
+            int left = w * layout.cols[i];
+            int right = col == layout.columns ? width : w * col;
+            int bottom = top + (layout.funcRows[row] ? keyHeight : h);
+            Rect rect = rects[i];
+            if (rect.left == left && rect.top == top && rect.right == right && rect.bottom == bottom)
+                continue;
+            rect.set(left, top, right, bottom);
+            changed = true;
+
+            Drawable icon = getIcon(layout.codes[i]);
+            if (null != icon) {
+                int iw = icon.getIntrinsicWidth() / 2;
+                int ih = icon.getIntrinsicHeight() / 2;
+                iconRects[i].set(rect.centerX() - iw, rect.centerY() - ih, rect.centerX() + iw, rect.centerY() + ih);
+            }
         }
-
-        if (null != backDrawable) {
-            int hw = (rects[KEY_BACK].right - rects[KEY_BACK].left) / 2;
-            int hh = (rects[KEY_BACK].bottom - rects[KEY_BACK].top) / 2;
-            backDrawableRect.left = rects[KEY_BACK].left + hw - backDrawable.getIntrinsicWidth() / 2;
-            backDrawableRect.top = rects[KEY_BACK].top + hh - backDrawable.getIntrinsicHeight() / 2;
-            backDrawableRect.right = rects[KEY_BACK].left + hw + backDrawable.getIntrinsicWidth() / 2;
-            backDrawableRect.bottom = rects[KEY_BACK].top + hh + backDrawable.getIntrinsicHeight() / 2;
+        if (changed) {
+            updateLabels();
+            hitGrid.build(rects);
         }
 
-        if (curState != STATE_HIDE)
+        if (curState != STATE_HIDE || hideMode == HIDE_MODE_INVISIBLE)
             setMeasuredDimension(width, height);
         else
             setMeasuredDimension(0, 0);
@@ -260,70 +408,133 @@ public class EasyKeyboard extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        EasyMetrics.beginSection("EasyKeyboard#onDraw");
+        long start = null != metrics ? System.nanoTime() : 0;
+
+        drawKeyboard(canvas);
+
+        if (null != metrics)
+            metrics.keyboardDraw.record(System.nanoTime() - start);
+        EasyMetrics.endSection();
+    }
+
+    private void drawKeyboard(Canvas canvas) {
         if (curState != STATE_HIDE) {
-            // 背景
-            canvas.drawColor(bgColor);
-
-            // 禁用部分背景
-            paint.setColor(bgColorDisable);
-            for (Integer index : disableList)
-                canvas.drawRect(rects[index], paint);
-
-            // 按下部分背景
-            Collection<Integer> pressedIndexes = pressedMap.values();
-            paint.setColor(bgColorPressed);
-            for (Integer index : pressedIndexes) {
-                Rect r = rects[index];
-                canvas.drawRect(r, paint);
-            }
+            // 正常状态的键盘，优先使用缓存的图层
+            if (faceCache && prepareFace())
+                canvas.drawBitmap(faceLayer, 0, 0, null);
+            else
+                drawFace(canvas);
 
-            // 功能键
-            if (keyHeight > 0) {
-                String funcStr = dataList.get(0);
-                float startX = width / 2 - keyTextPaint.measureText(funcStr) / 2;
-
-                if (pressedIndexes.contains(0))
-                    keyTextPaint.setColor(keyTextColorPressed);
-                else if (disableList.contains(0))
-                    keyTextPaint.setColor(keyTextColorDisable);
-                else
-                    keyTextPaint.setColor(keyTextColor);
-
-                if (null != keyDrawable) {
-                    keyDrawable.setBounds(keyDrawableRect);
-                    keyDrawable.draw(canvas);
-                } else {
-                    canvas.drawText(funcStr, startX, keyHeight / 2 - (kFm.ascent + kFm.descent) / 2, keyTextPaint);
-                }
+            // 禁用的按键
+            for (int i = disabledKeys.nextSetBit(0); i >= 0; i = disabledKeys.nextSetBit(i + 1)) {
+                if (!pressedKeys.get(i))
+                    drawKey(canvas, i, bgColorDisable, textColorDisable, keyTextColorDisable);
             }
 
-            // 文字
-            int baseLine = 0;
-            for (int l = 0; l < lines; l++) {
-                baseLine = (int) (keyHeight + l * h + h / 2 - (fm.ascent + fm.descent) / 2);
-                for (int c = 0; c < columns; c++) {
-                    int index = l * columns + c + 1;
-
-                    if (pressedIndexes.contains(index))
-                        textPaint.setColor(textColorPressed);
-                    else if (disableList.contains(index))
-                        textPaint.setColor(textColorDisable);
-                    else
-                        textPaint.setColor(textColor);
-
-                    if (index == KEY_BACK && null != backDrawable) {
-                        backDrawable.setBounds(backDrawableRect);
-                        backDrawable.draw(canvas);
-                    } else {
-                        canvas.drawText(dataList.get(index), c * w + w / 2 - textWidth / 2, baseLine, textPaint);
-                    }
-                }
-            }
+            // 按下的按键
+            for (int i = pressedKeys.nextSetBit(0); i >= 0; i = pressedKeys.nextSetBit(i + 1))
+                drawKey(canvas, i, bgColorPressed, textColorPressed, keyTextColorPressed);
+        }
+    }
+
+    /**
+     * 确保键盘图层与当前尺寸及文字一致
+     *
+     * @return true为图层可用
+     */
+    private boolean prepareFace() {
+        int w = getWidth();
+        int h = getHeight();
+        if (w <= 0 || h <= 0)
+            return false;
+
+        if (null == faceLayer || faceLayer.getWidth() != w || faceLayer.getHeight() != h) {
+            releaseFace();
+            faceLayer = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            faceDirty = true;
+        }
+        if (faceDirty) {
+            drawFace(new Canvas(faceLayer));
+            faceDirty = false;
+        }
+        return true;
+    }
+
+    private void releaseFace() {
+        if (null != faceLayer) {
+            faceLayer.recycle();
+            faceLayer = null;
+        }
+        faceDirty = true;
+    }
+
+    /**
+     * 绘制所有按键都未按下未禁用时的键盘
+     */
+    private void drawFace(Canvas canvas) {
+        canvas.drawColor(bgColor);
+        for (int i = 0; i < rects.length; i++)
+            drawLabel(canvas, i, textColor, keyTextColor);
+    }
+
+    /**
+     * 绘制单个按键的背景及文字，用于按下和禁用状态
+     */
+    private void drawKey(Canvas canvas, int index, int bgColor, int textColor, int keyTextColor) {
+        paint.setColor(bgColor);
+        canvas.drawRect(rects[index], paint);
+        drawLabel(canvas, index, textColor, keyTextColor);
+    }
+
+    /**
+     * 绘制单个按键的文字或图标
+     */
+    private void drawLabel(Canvas canvas, int index, int textColor, int keyTextColor) {
+        if (rects[index].isEmpty())
+            return;
+
+        Drawable icon = getIcon(layout.codes[index]);
+        if (null != icon) {
+            icon.setBounds(iconRects[index]);
+            icon.draw(canvas);
+        } else {
+            boolean func = layout.funcRows[layout.rows[index]];
+            TextPaint labelPaint = func ? keyTextPaint : textPaint;
+            labelPaint.setColor(func ? keyTextColor : textColor);
+            canvas.drawText(dataList.get(index), labelX[index], labelY[index], labelPaint);
+        }
+    }
+
+    /**
+     * 计算每个按键文字的位置，文字在按键中居中
+     */
+    private void updateLabels() {
+        faceDirty = true;
+        for (int i = 0; i < rects.length; i++) {
+            Rect r = rects[i];
+            boolean func = layout.funcRows[layout.rows[i]];
+            TextPaint labelPaint = func ? keyTextPaint : textPaint;
+            Paint.FontMetrics fontMetrics = func ? kFm : fm;
+            labelX[i] = r.centerX() - labelPaint.measureText(dataList.get(i)) / 2;
+            labelY[i] = r.centerY() - (fontMetrics.ascent + fontMetrics.descent) / 2;
         }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        EasyMetrics.beginSection("EasyKeyboard#onTouchEvent");
+        long start = null != metrics ? System.nanoTime() : 0;
+
+        boolean handled = handleTouchEvent(event);
+
+        if (null != metrics)
+            metrics.keyboardTouch.record(System.nanoTime() - start);
+        EasyMetrics.endSection();
+        return handled;
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
         if (curState == STATE_HIDE || curState == STATE_ANIM)
             return false;
 
@@ -331,6 +542,7 @@ public class EasyKeyboard extends View {
         int pointerId = event.getPointerId(actionIndex);
         int pointerIndex = event.findPointerIndex(pointerId);
 
+        dirtyRect.setEmpty();
         if (pointerIndex != -1) {
             switch (event.getAction() & MotionEvent.ACTION_MASK) {
                 case MotionEvent.ACTION_DOWN:
@@ -339,11 +551,13 @@ public class EasyKeyboard extends View {
                     int downY = (int) event.getY(pointerIndex);
                     int index = getNewPointIndex(downX, downY);
 
-                    if (disableList.contains(index))
+                    if (index != -1 && disabledKeys.get(index))
                         return false;
 
-                    if (index != -1) {
-                        pressedMap.put(pointerId, index);
+                    Rect r = index != -1 ? rects[index] : null;
+                    if (null != r && touchTracker.down(pointerId, index, r.left, r.top, r.right, r.bottom, downX, downY)) {
+                        pressedKeys.set(index);
+                        dirtyRect.union(rects[index]);
 
                         if (null != onEasyKeyListener)
                             onEasyKeyListener.onKeyDown(inputView, index);
@@ -352,19 +566,27 @@ public class EasyKeyboard extends View {
                 break;
 
                 case MotionEvent.ACTION_MOVE: {
+                    // 一次处理所有触摸点的历史采样点和当前点，只比较边界，不重新查找按键
+                    int historySize = event.getHistorySize();
                     for (int i = 0; i < event.getPointerCount(); i++) {
                         int movePointerId = event.getPointerId(i);
-                        int movePointerIndex = event.findPointerIndex(movePointerId);
-                        int x = (int) event.getX(movePointerIndex);
-                        int y = (int) event.getY(movePointerIndex);
-                        Integer index = pressedMap.get(movePointerId);
-
-                        // 触摸点已经移出正在按下的键
-                        if (null != index && index != getPointIndex(x, y)) {
-                            pressedMap.remove(movePointerId);
-
-                            if (null != onEasyKeyListener)
-                                onEasyKeyListener.onKeyCancel(inputView, index);
+                        if (touchTracker.keyOf(movePointerId) == -1)
+                            continue;
+
+                        for (int h = 0; h <= historySize; h++) {
+                            float x = h < historySize ? event.getHistoricalX(i, h) : event.getX(i);
+                            float y = h < historySize ? event.getHistoricalY(i, h) : event.getY(i);
+                            int index = touchTracker.move(movePointerId, x, y);
+
+                            // 触摸点已经移出正在按下的键的迟滞边界
+                            if (index != -1) {
+                                pressedKeys.clear(index);
+                                dirtyRect.union(rects[index]);
+
+                                if (null != onEasyKeyListener)
+                                    onEasyKeyListener.onKeyCancel(inputView, index);
+                                break;
+                            }
                         }
                     }
                 }
@@ -373,33 +595,38 @@ public class EasyKeyboard extends View {
                 case MotionEvent.ACTION_CANCEL:
                 case MotionEvent.ACTION_UP:
                 case MotionEvent.ACTION_POINTER_UP: {
-                    Integer index = pressedMap.remove(pointerId);
-                    if (null != index && null != onEasyKeyListener)
-                        onEasyKeyListener.onKeyUp(inputView, index);
+                    int index = touchTracker.up(pointerId);
+                    if (index != -1) {
+                        pressedKeys.clear(index);
+                        dirtyRect.union(rects[index]);
+                        // 只有回调中改变了输入内容的按键才统计按键到显示的延迟
+                        if (null != metrics)
+                            metrics.beginKey(event.getEventTime());
+                        if (null != onEasyKeyListener)
+                            onEasyKeyListener.onKeyUp(inputView, index);
+                        if (null != metrics)
+                            metrics.endKey();
+                    }
                 }
                 break;
             }
-            invalidate();
+
+            // 只重绘状态改变的按键，没有改变时不重绘
+            if (!dirtyRect.isEmpty())
+                invalidate(dirtyRect);
         }
         return true;
     }
 
     /**
-     * 获取点对应的按键下标
+     * 获取点对应的按键下标，使用测量时建立的查找表，为常数时间
      *
      * @param x 触摸点x坐标
      * @param y 触摸点y坐标
      * @return 点对应的按键下标
      */
-    private int getPointIndex(int x, int y) {
-        int index = -1;
-        for (int i = 0; i < rects.length; i++) {
-            if (rects[i].contains(x, y)) {
-                index = i;
-                break;
-            }
-        }
-        return index;
+    int getPointIndex(int x, int y) {
+        return hitGrid.keyAt(x, y);
     }
 
     /**
@@ -409,25 +636,46 @@ public class EasyKeyboard extends View {
      * @param y 触摸点y坐标
      * @return 点对应的按键下标
      */
-    private int getNewPointIndex(int x, int y) {
+    int getNewPointIndex(int x, int y) {
         int pointIndex = getPointIndex(x, y);
-        return pressedMap.containsValue(pointIndex) ? -1 : pointIndex;
+        return pointIndex == -1 || pressedKeys.get(pointIndex) ? -1 : pointIndex;
     }
 
     /**
      * 设置要显示的数据项
      *
-     * @param dataList 要显示的数据项，size必须为13
+     * @param dataList 要显示的数据项，size必须与布局中的按键个数相同，默认布局为13
      */
     public void setDataList(ArrayList<String> dataList) {
-        if (null == dataList || dataList.size() <= 0 || dataList.size() > 13) {
-            throw new IllegalArgumentException("Size of dataList must be 13.");
+        if (null == dataList || dataList.size() != rects.length) {
+            throw new IllegalArgumentException("Size of dataList must be " + rects.length + ".");
         } else {
+            this.dataList.clear();
             this.dataList.addAll(dataList);
+            updateLabels();
             invalidate();
         }
     }
 
+    /**
+     * 获取按键个数
+     *
+     * @return 按键个数
+     */
+    public int getKeyCount() {
+        return rects.length;
+    }
+
+    /**
+     * 获取按键的编码
+     *
+     * @param index 按键下标
+     * @return 按键编码，KEY_CODE_FUNC，KEY_CODE_BACK，KEY_CODE_CLEAR，KEY_CODE_NONE或者要输入的字符
+     */
+    public int getKeyCode(int index) {
+        return layout.codes[index];
+    }
+
     public ArrayList<String> getDataList() {
         return dataList;
     }
@@ -438,59 +686,77 @@ public class EasyKeyboard extends View {
      * @param index   要禁用的按键下标
      * @param disable true为禁用，false为不禁用
      */
-    public void setDisableKey(Integer index, boolean disable) {
-        if (index < 0 || index >= lines * columns + 1)
+    public void setDisableKey(int index, boolean disable) {
+        if (index < 0 || index >= rects.length)
             return;
 
-        if (!disableList.contains(index)) {
-            if (disable)
-                disableList.add(index);
-            else
-                disableList.remove(index);
+        if (disabledKeys.get(index) != disable) {
+            disabledKeys.set(index, disable);
+            invalidate(rects[index]);
         }
+    }
 
-        invalidate();
+    /**
+     * 设置触摸阈值和迟滞距离，只对之后按下的触摸点生效
+     *
+     * @param touchSlop       触摸阈值，按下后移动距离在阈值内时不取消，单位px
+     * @param touchHysteresis 迟滞距离，按下的按键边界向外扩展的距离，移出扩展后的边界才取消，单位px
+     */
+    public void setTouchTolerance(int touchSlop, int touchHysteresis) {
+        if (touchSlop < 0 || touchHysteresis < 0)
+            throw new IllegalArgumentException("touchSlop and touchHysteresis must not be less than 0.");
+
+        this.touchSlop = touchSlop;
+        this.touchHysteresis = touchHysteresis;
+        touchTracker.setSlop(touchSlop);
+        touchTracker.setHysteresis(touchHysteresis);
+    }
+
+    /**
+     * 按键是否被禁用
+     *
+     * @param index 按键下标
+     * @return true为禁用
+     */
+    public boolean isKeyDisabled(int index) {
+        return index >= 0 && index < rects.length && disabledKeys.get(index);
     }
 
     /**
-     * 设置禁用的按键集
+     * 设置禁用的按键集，之前禁用的其他按键恢复为不禁用
      *
      * @param startIndex 禁用按键集下标起始
      * @param endIndex   禁用按键集下标结束
      * @param disable    true为禁用，false为不禁用
      */
-    public void setDisableKeys(Integer startIndex, Integer endIndex, boolean disable) {
-        if (startIndex > endIndex || startIndex < 0 || endIndex >= lines * columns + 1)
+    public void setDisableKeys(int startIndex, int endIndex, boolean disable) {
+        if (startIndex > endIndex || startIndex < 0 || endIndex >= rects.length)
             return;
 
-        disableList.clear();
-        for (Integer i = startIndex; i <= endIndex; i++) {
-            if (disable)
-                disableList.add(i);
-            else
-                disableList.remove(i);
+        // 只重绘禁用状态改变的按键
+        disableDirtyRect.setEmpty();
+        for (int i = 0; i < rects.length; i++) {
+            boolean newDisable = disable && i >= startIndex && i <= endIndex;
+            if (disabledKeys.get(i) != newDisable) {
+                disabledKeys.set(i, newDisable);
+                disableDirtyRect.union(rects[i]);
+            }
         }
-
-        invalidate();
+        if (!disableDirtyRect.isEmpty())
+            invalidate(disableDirtyRect);
     }
 
     /**
-     * 弹出键盘，使用默认动画
+     * 弹出键盘，使用默认动画，动画对象只创建一次，之后不再分配
      *
      * @param inputView 绑定的输入视图，在回调事件onKeyDown，onKeyCancel和onKeyUp中返回，可以为null
      */
     public void show(View inputView) {
-        // 向上移动一段距离，且逐渐出现
-        TranslateAnimation animTran = new TranslateAnimation(0.0f, 0.0f, 100.0f, 0.0f);
-        AlphaAnimation animAlpha = new AlphaAnimation(0.0f, 1.0f);
-
-        AnimationSet animSet = new AnimationSet(true);
-        animSet.addAnimation(animTran);
-        animSet.addAnimation(animAlpha);
-        animSet.setDuration(150);
-        animSet.setFillAfter(true);
-
-        show(inputView, animSet);
+        if (curState != STATE_SHOW) {
+            enterShow(inputView);
+            clearAnimation();
+            showAnimator.start();
+        }
     }
 
     /**
@@ -501,30 +767,23 @@ public class EasyKeyboard extends View {
      */
     public void show(View inputView, Animation anim) {
         if (curState != STATE_SHOW) {
-            curState = STATE_SHOW;
-            this.inputView = inputView;
-
-            reset();
-            requestLayout();
+            enterShow(inputView);
+            // 清除默认动画留下的位移和透明度
+            setTranslationY(0.0f);
+            setAlpha(1.0f);
             startAnimation(anim);
         }
     }
 
     /**
-     * 隐藏键盘，使用默认动画
+     * 隐藏键盘，使用默认动画，动画对象只创建一次，之后不再分配
      */
     public void hide() {
-        // 向下移动一段距离，且逐渐消失
-        TranslateAnimation animTran = new TranslateAnimation(0.0f, 0.0f, 0.0f, 100.0f);
-        AlphaAnimation animAlpha = new AlphaAnimation(1.0f, 0.0f);
-
-        AnimationSet animSet = new AnimationSet(true);
-        animSet.addAnimation(animTran);
-        animSet.addAnimation(animAlpha);
-        animSet.setDuration(150);
-        animSet.setFillAfter(true);
-
-        hide(animSet);
+        if (curState != STATE_HIDE) {
+            enterHide();
+            clearAnimation();
+            hideAnimator.start();
+        }
     }
 
     /**
@@ -534,29 +793,83 @@ public class EasyKeyboard extends View {
      */
     public void hide(Animation anim) {
         if (curState != STATE_HIDE) {
-            curState = STATE_ANIM;
-            reset();
-            anim.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationStart(Animation animation) {
+            enterHide();
+            anim.setAnimationListener(hideAnimListener);
+            startAnimation(anim);
+        }
+    }
 
-                }
+    private void enterShow(View inputView) {
+        int lastState = curState;
+        curState = STATE_SHOW;
+        this.inputView = inputView;
+        reset();
+
+        // 隐藏动画被取消时curState已经不是STATE_ANIM，不会再隐藏
+        hideAnimator.cancel();
+        if (hideMode == HIDE_MODE_INVISIBLE)
+            setVisibility(VISIBLE);
+        else if (lastState == STATE_HIDE)
+            requestLayout();
+    }
 
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    curState = STATE_HIDE;
-                    requestLayout();
-                }
+    private void enterHide() {
+        curState = STATE_ANIM;
+        reset();
+        showAnimator.cancel();
+    }
+
+    /**
+     * 隐藏动画结束，HIDE_MODE_INVISIBLE只改变可见性，HIDE_MODE_COLLAPSE需要重新布局
+     */
+    private void onHideEnd() {
+        if (curState != STATE_ANIM)
+            return;
 
-                @Override
-                public void onAnimationRepeat(Animation animation) {
+        curState = STATE_HIDE;
+        if (hideMode == HIDE_MODE_INVISIBLE)
+            setVisibility(INVISIBLE);
+        else
+            requestLayout();
+    }
 
-                }
-            });
-            startAnimation(anim);
+    /**
+     * 设置隐藏方式，HIDE_MODE_INVISIBLE时隐藏后仍然占用布局空间，弹出和隐藏都不需要重新布局，
+     * HIDE_MODE_COLLAPSE时隐藏后不占用布局空间
+     *
+     * @param hideMode HIDE_MODE_COLLAPSE或者HIDE_MODE_INVISIBLE
+     */
+    public void setHideMode(int hideMode) {
+        if (hideMode != HIDE_MODE_COLLAPSE && hideMode != HIDE_MODE_INVISIBLE)
+            throw new IllegalArgumentException("hideMode must be HIDE_MODE_COLLAPSE or HIDE_MODE_INVISIBLE.");
+        if (this.hideMode == hideMode)
+            return;
+
+        this.hideMode = hideMode;
+        if (curState == STATE_HIDE) {
+            setVisibility(hideMode == HIDE_MODE_INVISIBLE ? INVISIBLE : VISIBLE);
+            requestLayout();
         }
     }
 
+    /**
+     * 获取隐藏方式
+     *
+     * @return HIDE_MODE_COLLAPSE或者HIDE_MODE_INVISIBLE
+     */
+    public int getHideMode() {
+        return hideMode;
+    }
+
+    /**
+     * 设置耗时统计，可以与EasyInputView使用同一个对象，以统计按键到显示的延迟
+     *
+     * @param metrics 耗时统计，为null时不统计
+     */
+    public void setMetrics(EasyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * 获取当前键盘状态
      *
@@ -567,8 +880,9 @@ public class EasyKeyboard extends View {
     }
 
     private void reset() {
-        pressedMap.clear();
-        disableList.clear();
+        touchTracker.clear();
+        pressedKeys.clear();
+        disabledKeys.clear();
     }
 
     /**
@@ -0,0 +1,297 @@
+package com.hzn.easyinputview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * 绘制与输入耗时统计，需要时通过EasyInputView.setMetrics和EasyKeyboard.setMetrics开启，
+ * 未设置时视图中只有一次判空。统计数据只在UI线程中读写，可通过snapshot复制后上报
+ */
+public class EasyMetrics {
+
+    private static final boolean TRACE_ENABLED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    // 默认帧间隔，单位ns，用于判断动画是否掉帧
+    private static final long DEFAULT_FRAME_INTERVAL = 16666667L;
+
+    /**
+     * 输入框绘制耗时
+     */
+    public final Histogram inputDraw = new Histogram();
+    /**
+     * 键盘绘制耗时
+     */
+    public final Histogram keyboardDraw = new Histogram();
+    /**
+     * 键盘触摸事件处理耗时
+     */
+    public final Histogram keyboardTouch = new Histogram();
+    /**
+     * 按键到输入框绘制出新字符的耗时，虚拟键盘从按键抬起开始计算，实体键盘从按键按下开始计算，
+     * 只统计改变了输入内容的按键
+     */
+    public final Histogram keyToPixel = new Histogram();
+
+    private long animationFrames;
+    private long droppedFrames;
+    private long frameInterval = DEFAULT_FRAME_INTERVAL;
+    private long lastFrameTime = -1;
+    // 正在分发的按键事件时间，单位ms，小于0为没有
+    private long keyTime = -1;
+    // 已改变输入内容、等待绘制的按键事件时间，单位ms，小于0为没有
+    private long pendingKeyTime = -1;
+
+    /**
+     * 设置期望的帧间隔，用于计算掉帧数，默认为60Hz
+     *
+     * @param frameIntervalNanos 帧间隔，单位ns
+     */
+    public void setFrameInterval(long frameIntervalNanos) {
+        if (frameIntervalNanos > 0)
+            this.frameInterval = frameIntervalNanos;
+    }
+
+    /**
+     * 开始分发按键事件，在endKey之前输入内容改变时，下一次输入框绘制时计算延迟
+     *
+     * @param eventTimeMillis 按键事件的时间，与SystemClock.uptimeMillis()同一时间基准
+     */
+    void beginKey(long eventTimeMillis) {
+        keyTime = eventTimeMillis;
+    }
+
+    /**
+     * 按键事件分发结束，未改变输入内容的按键（例如功能键）不计算延迟
+     */
+    void endKey() {
+        keyTime = -1;
+    }
+
+    /**
+     * 输入内容改变时调用，正在分发按键事件时记录该按键，等待下一次绘制
+     */
+    void onInputChanged() {
+        if (keyTime >= 0)
+            pendingKeyTime = keyTime;
+    }
+
+    /**
+     * 输入框绘制完成时调用
+     *
+     * @param drawNanos 本次绘制耗时，单位ns
+     * @param nowMillis 当前时间，与SystemClock.uptimeMillis()同一时间基准
+     */
+    void onInputDrawn(long drawNanos, long nowMillis) {
+        inputDraw.record(drawNanos);
+        if (pendingKeyTime >= 0) {
+            keyToPixel.record((nowMillis - pendingKeyTime) * 1000000L);
+            pendingKeyTime = -1;
+        }
+    }
+
+    /**
+     * 动画开始时调用，重新开始计算帧间隔
+     */
+    void onAnimationStart() {
+        lastFrameTime = -1;
+    }
+
+    /**
+     * 每个动画帧调用一次
+     *
+     * @param frameTimeNanos 帧时间
+     */
+    void onAnimationFrame(long frameTimeNanos) {
+        animationFrames++;
+        if (lastFrameTime >= 0) {
+            long delta = frameTimeNanos - lastFrameTime;
+            // 超过1.5个帧间隔视为掉帧
+            if (delta * 2 > frameInterval * 3)
+                droppedFrames += (delta + frameInterval / 2) / frameInterval - 1;
+        }
+        lastFrameTime = frameTimeNanos;
+    }
+
+    public long getAnimationFrames() {
+        return animationFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * 复制当前统计数据
+     *
+     * @param out 复制的目标，为null时创建新的对象
+     * @return 复制后的统计数据
+     */
+    public Snapshot snapshot(Snapshot out) {
+        if (null == out)
+            out = new Snapshot();
+        inputDraw.copyTo(out.inputDraw);
+        keyboardDraw.copyTo(out.keyboardDraw);
+        keyboardTouch.copyTo(out.keyboardTouch);
+        keyToPixel.copyTo(out.keyToPixel);
+        out.animationFrames = animationFrames;
+        out.droppedFrames = droppedFrames;
+        return out;
+    }
+
+    /**
+     * 清空统计数据，例如每次上报后调用
+     */
+    public void reset() {
+        inputDraw.reset();
+        keyboardDraw.reset();
+        keyboardTouch.reset();
+        keyToPixel.reset();
+        animationFrames = 0;
+        droppedFrames = 0;
+        lastFrameTime = -1;
+        keyTime = -1;
+        pendingKeyTime = -1;
+    }
+
+    static void beginSection(String name) {
+        if (TRACE_ENABLED)
+            traceBegin(name);
+    }
+
+    static void endSection() {
+        if (TRACE_ENABLED)
+            traceEnd();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void traceBegin(String name) {
+        Trace.beginSection(name);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void traceEnd() {
+        Trace.endSection();
+    }
+
+    /**
+     * 统计数据的副本
+     */
+    public static class Snapshot {
+        public final Histogram inputDraw = new Histogram();
+        public final Histogram keyboardDraw = new Histogram();
+        public final Histogram keyboardTouch = new Histogram();
+        public final Histogram keyToPixel = new Histogram();
+        public long animationFrames;
+        public long droppedFrames;
+    }
+
+    /**
+     * 固定分段的耗时直方图，记录时不产生新对象
+     */
+    public static class Histogram {
+        // 各分段的上限，单位us，最后一段没有上限，所有直方图共用，不能修改
+        private static final long[] BOUNDS = {250, 500, 1000, 2000, 4000, 8000, 16000, 33000, 66000, 133000};
+        /**
+         * 分段个数，包括最后一个没有上限的分段
+         */
+        public static final int BUCKET_COUNT = BOUNDS.length + 1;
+
+        private final long[] counts = new long[BUCKET_COUNT];
+        private long count;
+        private long sum;
+        private long max;
+
+        /**
+         * 记录一次耗时
+         *
+         * @param nanos 耗时，单位ns
+         */
+        public void record(long nanos) {
+            long micros = nanos / 1000;
+            int i = 0;
+            while (i < BOUNDS.length && micros > BOUNDS[i])
+                i++;
+            counts[i]++;
+            count++;
+            sum += micros;
+            if (micros > max)
+                max = micros;
+        }
+
+        /**
+         * 获取某一分段的次数
+         *
+         * @param bucket 分段下标，0到BUCKET_COUNT - 1
+         * @return 次数
+         */
+        public long getBucketCount(int bucket) {
+            return counts[bucket];
+        }
+
+        /**
+         * 获取某一分段的上限
+         *
+         * @param bucket 分段下标，0到BUCKET_COUNT - 1
+         * @return 上限，单位us，最后一段没有上限时返回Long.MAX_VALUE
+         */
+        public static long getBucketBound(int bucket) {
+            if (bucket < 0 || bucket > BOUNDS.length)
+                throw new IndexOutOfBoundsException("bucket: " + bucket + ", count: " + BUCKET_COUNT);
+            return bucket < BOUNDS.length ? BOUNDS[bucket] : Long.MAX_VALUE;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 平均耗时，单位us
+         */
+        public long getMeanMicros() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        /**
+         * @return 最大耗时，单位us
+         */
+        public long getMaxMicros() {
+            return max;
+        }
+
+        /**
+         * 估算百分位耗时，返回所在分段的上限
+         *
+         * @param percent 百分位，0到100
+         * @return 耗时上限，单位us，落在最后一段时返回最大耗时
+         */
+        public long getPercentileMicros(float percent) {
+            if (count == 0)
+                return 0;
+
+            long target = (long) Math.ceil(count * percent / 100f);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += counts[i];
+                if (seen >= target)
+                    return BOUNDS[i];
+            }
+            return max;
+        }
+
+        void copyTo(Histogram out) {
+            System.arraycopy(counts, 0, out.counts, 0, counts.length);
+            out.count = count;
+            out.sum = sum;
+            out.max = max;
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = 0;
+            count = 0;
+            sum = 0;
+            max = 0;
+        }
+    }
+}
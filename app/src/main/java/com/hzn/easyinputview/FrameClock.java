@@ -0,0 +1,138 @@
+package com.hzn.easyinputview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * 界面帧时钟，在UI线程上按帧回调，API 16及以上使用Choreographer与屏幕刷新同步，
+ * 以下版本退化为Handler定时回调。每次只需要请求下一帧，回调过程中不产生新对象
+ */
+abstract class FrameClock {
+
+    // 退化模式下的帧间隔，单位ms
+    private static final long FALLBACK_FRAME_DELAY = 16;
+
+    /**
+     * 帧回调接口
+     */
+    interface Callback {
+        /**
+         * 每帧回调一次，在UI线程中执行
+         *
+         * @param frameTimeNanos 当前帧的时间，单位ns
+         */
+        void onFrame(long frameTimeNanos);
+    }
+
+    protected final Callback callback;
+    // 是否已请求下一帧，避免同一帧内重复请求
+    private boolean posted;
+
+    FrameClock(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * 根据系统版本创建帧时钟
+     *
+     * @param view     用于退化模式下投递消息的视图
+     * @param callback 帧回调
+     * @return 帧时钟
+     */
+    static FrameClock create(View view, Callback callback) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            return new ChoreographerClock(callback);
+        else
+            return new HandlerClock(view, callback);
+    }
+
+    /**
+     * 请求下一帧回调，同一帧内多次请求只回调一次
+     */
+    void postFrame() {
+        if (!posted) {
+            posted = true;
+            schedule();
+        }
+    }
+
+    /**
+     * 取消已请求的帧回调
+     */
+    void cancel() {
+        if (posted) {
+            posted = false;
+            unschedule();
+        }
+    }
+
+    /**
+     * 是否已请求下一帧
+     *
+     * @return true为已请求
+     */
+    boolean isPosted() {
+        return posted;
+    }
+
+    protected void dispatchFrame(long frameTimeNanos) {
+        posted = false;
+        callback.onFrame(frameTimeNanos);
+    }
+
+    protected abstract void schedule();
+
+    protected abstract void unschedule();
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerClock extends FrameClock implements Choreographer.FrameCallback {
+        private final Choreographer choreographer;
+
+        ChoreographerClock(Callback callback) {
+            super(callback);
+            choreographer = Choreographer.getInstance();
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            dispatchFrame(frameTimeNanos);
+        }
+
+        @Override
+        protected void schedule() {
+            choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        protected void unschedule() {
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    private static class HandlerClock extends FrameClock implements Runnable {
+        private final View view;
+
+        HandlerClock(View view, Callback callback) {
+            super(callback);
+            this.view = view;
+        }
+
+        @Override
+        public void run() {
+            dispatchFrame(SystemClock.uptimeMillis() * 1000000L);
+        }
+
+        @Override
+        protected void schedule() {
+            view.postDelayed(this, FALLBACK_FRAME_DELAY);
+        }
+
+        @Override
+        protected void unschedule() {
+            view.removeCallbacks(this);
+        }
+    }
+}
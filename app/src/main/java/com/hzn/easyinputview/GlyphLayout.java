@@ -0,0 +1,216 @@
+package com.hzn.easyinputview;
+
+import java.util.Arrays;
+
+/**
+ * 输入框文字位置表，缓存每个方块的偏移、每个字符的宽度以及文字基线，
+ * 只在数据、尺寸或样式改变时重新计算，绘制时只需查表
+ */
+final class GlyphLayout {
+
+    /**
+     * 测量文字宽度的接口
+     */
+    interface Measurer {
+        float measureText(char[] text, int index, int count);
+    }
+
+    // 缓存宽度的字符范围，超出范围的字符每次改变时测量
+    private static final int WIDTH_CACHE_SIZE = 128;
+
+    private int singleWidth;
+    // 每个方块相对于内容起点的左侧偏移
+    private int[] slotLeft;
+    // 每个字符相对于内容起点的绘制位置
+    private int[] glyphX;
+    // 每个字符的宽度
+    private int[] glyphWidth;
+    // 每个位置已计算的字符，用于判断是否需要重新计算
+    private char[] glyphs;
+    private boolean[] laidOut;
+    private int count;
+    private float baseline;
+    private int contentWidth;
+
+    // 替代的文字，为null时显示原字符
+    private char[] instead;
+    private int insteadWidth = -1;
+    // 按字符缓存的宽度，-1为未测量
+    private final int[] charWidths = new int[WIDTH_CACHE_SIZE];
+    private final char[] single = new char[1];
+
+    // 测量次数，用于确认绘制过程中没有重复测量
+    private int measureCount;
+
+    GlyphLayout() {
+        Arrays.fill(charWidths, -1);
+    }
+
+    /**
+     * 计算方块偏移表
+     *
+     * @param max           最多输入个数
+     * @param singleWidth   单个方块宽
+     * @param groups        分组规则，每组的字符个数，用完后按最后一组的个数继续分组，为null时不分隔
+     * @param separateWidth 间隔的距离
+     */
+    void setSlots(int max, int singleWidth, int[] groups, int separateWidth) {
+        this.singleWidth = singleWidth;
+        if (null == slotLeft || slotLeft.length != max) {
+            slotLeft = new int[max];
+            glyphX = new int[max];
+            glyphWidth = new int[max];
+            glyphs = new char[max];
+            laidOut = new boolean[max];
+            count = 0;
+        }
+
+        // 按分组依次累加间隔，计算一次后测量、绘制和动画都直接查表
+        int group = 0;
+        int remain = null != groups ? groups[0] : -1;
+        int offset = 0;
+        for (int i = 0; i < max; i++) {
+            if (remain == 0) {
+                offset += separateWidth;
+                if (group < groups.length - 1)
+                    group++;
+                remain = groups[group];
+            }
+            slotLeft[i] = singleWidth * i + offset;
+            remain--;
+        }
+        contentWidth = max > 0 ? slotLeft[max - 1] + singleWidth : 0;
+        Arrays.fill(laidOut, false);
+    }
+
+    void setBaseline(float baseline) {
+        this.baseline = baseline;
+    }
+
+    /**
+     * 设置替代的文字
+     *
+     * @param instead 替代的文字，为null时显示原字符
+     */
+    void setInstead(char[] instead) {
+        this.instead = instead;
+        insteadWidth = -1;
+        Arrays.fill(laidOut, false);
+    }
+
+    /**
+     * 样式改变后调用，下次更新时重新测量所有字符
+     */
+    void invalidateGlyphs() {
+        Arrays.fill(charWidths, -1);
+        insteadWidth = -1;
+        if (null != laidOut)
+            Arrays.fill(laidOut, false);
+    }
+
+    /**
+     * 根据数据更新字符位置，只计算发生变化的位置
+     *
+     * @param buffer   数据
+     * @param measurer 测量接口
+     */
+    void update(InputBuffer buffer, Measurer measurer) {
+        int size = Math.min(buffer.size(), slotLeft.length);
+        for (int i = 0; i < size; i++) {
+            char c = buffer.charAt(i);
+            if (laidOut[i] && (null != instead || glyphs[i] == c))
+                continue;
+
+            int width;
+            if (null != instead) {
+                if (insteadWidth < 0) {
+                    insteadWidth = (int) measurer.measureText(instead, 0, instead.length);
+                    measureCount++;
+                }
+                width = insteadWidth;
+            } else {
+                width = widthOf(c, measurer);
+            }
+            glyphs[i] = c;
+            glyphWidth[i] = width;
+            glyphX[i] = slotLeft[i] + singleWidth / 2 - width / 2;
+            laidOut[i] = true;
+        }
+        count = size;
+    }
+
+    private int widthOf(char c, Measurer measurer) {
+        if (c < WIDTH_CACHE_SIZE && charWidths[c] >= 0)
+            return charWidths[c];
+
+        single[0] = c;
+        int width = (int) measurer.measureText(single, 0, 1);
+        measureCount++;
+        if (c < WIDTH_CACHE_SIZE)
+            charWidths[c] = width;
+        return width;
+    }
+
+    /**
+     * 获取前size个方块的总长度，包含其中的间隔
+     *
+     * @param size 方块个数
+     * @return 总长度
+     */
+    int lengthOf(int size) {
+        if (size <= 0)
+            return 0;
+        return slotLeft[size - 1] + singleWidth;
+    }
+
+    /**
+     * 获取x所在的方块下标，x位于间隔中时返回间隔左侧的方块，二分查找
+     *
+     * @param x 相对于内容起点的x坐标
+     * @return 方块下标，x小于0时返回0
+     */
+    int slotAt(int x) {
+        int low = 0;
+        int high = slotLeft.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (slotLeft[mid] <= x)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    char[] getInstead() {
+        return instead;
+    }
+
+    int getGlyphX(int index) {
+        return glyphX[index];
+    }
+
+    int getGlyphWidth(int index) {
+        return glyphWidth[index];
+    }
+
+    int getSlotLeft(int index) {
+        return slotLeft[index];
+    }
+
+    float getBaseline() {
+        return baseline;
+    }
+
+    int getContentWidth() {
+        return contentWidth;
+    }
+
+    int getMeasureCount() {
+        return measureCount;
+    }
+}
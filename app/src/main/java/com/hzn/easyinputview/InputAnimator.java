@@ -0,0 +1,80 @@
+package com.hzn.easyinputview;
+
+/**
+ * 填充长度动画，按帧时间线性插值，与刷新率无关，
+ * 只在UI线程中使用，不做同步处理
+ */
+final class InputAnimator {
+
+    private int from;
+    private int to;
+    private int value;
+    // 开始时间，单位ns，小于0表示等待第一帧
+    private long startTime = -1;
+    // 时长，单位ns
+    private long duration;
+    private boolean running;
+
+    /**
+     * 开始动画，开始时间取第一次调用update时的帧时间
+     *
+     * @param from           起始长度
+     * @param to             目标长度
+     * @param durationMillis 时长，单位ms
+     */
+    void start(int from, int to, long durationMillis) {
+        this.from = from;
+        this.to = to;
+        this.value = from;
+        this.duration = durationMillis * 1000000L;
+        this.startTime = -1;
+        this.running = from != to;
+        if (!running)
+            value = to;
+    }
+
+    /**
+     * 根据帧时间更新当前长度
+     *
+     * @param frameTimeNanos 当前帧时间，单位ns
+     * @return true为动画仍在进行
+     */
+    boolean update(long frameTimeNanos) {
+        if (!running)
+            return false;
+
+        if (startTime < 0)
+            startTime = frameTimeNanos;
+
+        long elapsed = frameTimeNanos - startTime;
+        if (duration <= 0 || elapsed >= duration) {
+            value = to;
+            running = false;
+        } else {
+            value = from + (int) ((long) (to - from) * elapsed / duration);
+        }
+        return running;
+    }
+
+    /**
+     * 取消动画，长度直接停在目标值
+     */
+    void cancel() {
+        if (running) {
+            running = false;
+            value = to;
+        }
+    }
+
+    int getValue() {
+        return value;
+    }
+
+    int getTarget() {
+        return to;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,208 @@
+package com.hzn.easyinputview;
+
+/**
+ * 输入框的数据模型，每次添加或删除都立即生效，不会因动画进行中而丢弃，
+ * 数据保存在按最大个数分配的char数组中，添加和删除都不产生新对象。
+ * 个数按UTF-16单元计算，代理对占两个位置
+ */
+final class InputBuffer {
+
+    private char[] data;
+    private int size;
+    // 只读的字符序列视图，直接读取data
+    private final CharSequence text = new CharSequence() {
+        @Override
+        public int length() {
+            return size;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + size);
+            return data[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > size || start > end)
+                throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + size);
+            return new String(data, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(data, 0, size);
+        }
+    };
+
+    /**
+     * @param max 最多输入个数
+     */
+    InputBuffer(int max) {
+        this.data = new char[max];
+    }
+
+    /**
+     * 添加一个字符
+     *
+     * @param c 要添加的字符
+     * @return true为添加成功，false为已达到最大个数
+     */
+    boolean add(char c) {
+        if (size >= data.length)
+            return false;
+
+        data[size++] = c;
+        return true;
+    }
+
+    /**
+     * 删除最后一个字符
+     *
+     * @return true为删除成功，false为已经为空
+     */
+    boolean remove() {
+        if (size <= 0)
+            return false;
+
+        size--;
+        return true;
+    }
+
+    /**
+     * 在末尾添加多个字符
+     *
+     * @param text 要添加的字符
+     * @return true为添加成功，false为超出最大个数，此时不做任何修改
+     */
+    boolean append(CharSequence text) {
+        int len = text.length();
+        if (size + len > data.length)
+            return false;
+
+        for (int i = 0; i < len; i++)
+            data[size + i] = text.charAt(i);
+        size += len;
+        return true;
+    }
+
+    /**
+     * 在末尾添加多个字符，超出最大个数的部分不添加
+     *
+     * @param src   要添加的字符
+     * @param start 起始位置
+     * @param count 个数
+     * @return 实际添加的个数
+     */
+    int append(char[] src, int start, int count) {
+        int len = Math.min(count, data.length - size);
+        if (len <= 0)
+            return 0;
+
+        System.arraycopy(src, start, data, size, len);
+        size += len;
+        return len;
+    }
+
+    /**
+     * 内容是否与给定的字符相同，超出最大个数的部分按添加时被丢弃处理
+     *
+     * @param src   要比较的字符
+     * @param start 起始位置
+     * @param count 个数
+     * @return true为相同
+     */
+    boolean contentEquals(char[] src, int start, int count) {
+        if (Math.min(count, data.length) != size)
+            return false;
+
+        for (int i = 0; i < size; i++) {
+            if (data[i] != src[start + i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * 内容是否与给定的字符相同
+     *
+     * @param text 要比较的字符，为null时与空内容相同
+     * @return true为相同
+     */
+    boolean contentEquals(CharSequence text) {
+        int len = null == text ? 0 : text.length();
+        if (len != size)
+            return false;
+
+        for (int i = 0; i < size; i++) {
+            if (data[i] != text.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * 清空所有字符
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * 修改最多输入个数，超出部分的字符会被删除
+     *
+     * @param max 最多输入个数
+     */
+    void setMax(int max) {
+        if (max == data.length)
+            return;
+
+        char[] newData = new char[max];
+        size = Math.min(size, max);
+        System.arraycopy(data, 0, newData, 0, size);
+        data = newData;
+    }
+
+    char charAt(int index) {
+        return data[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int max() {
+        return data.length;
+    }
+
+    /**
+     * 获取内部数组，只用于绘制，不能修改
+     *
+     * @return 内部数组，有效长度为size()
+     */
+    char[] array() {
+        return data;
+    }
+
+    /**
+     * 获取只读的字符序列视图，内容随输入变化
+     *
+     * @return 字符序列视图
+     */
+    CharSequence text() {
+        return text;
+    }
+
+    /**
+     * 复制已输入的字符
+     *
+     * @param dst 目标数组，长度不足时只复制能放下的部分
+     * @return 复制的字符个数
+     */
+    int copyTo(char[] dst) {
+        int len = Math.min(size, dst.length);
+        System.arraycopy(data, 0, dst, 0, len);
+        return len;
+    }
+}
@@ -0,0 +1,110 @@
+package com.hzn.easyinputview;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 多线程输入队列，任意线程都可以提交输入，UI线程在一次处理中取出所有已提交的输入。
+ * 提交使用CAS无锁入栈，每个节点发布后不再修改；只在队列由空变为非空时请求一次处理，
+ * 因此多次提交会合并为一次界面更新
+ */
+final class InputIngestor {
+
+    // 删除最后一个字符，其余非负值为要添加的字符
+    static final int OP_REMOVE = -1;
+
+    /**
+     * 请求在UI线程中处理队列的接口
+     */
+    interface Scheduler {
+        void schedule();
+    }
+
+    private static final class Node {
+        final int op;
+        Node next;
+
+        Node(int op) {
+            this.op = op;
+        }
+    }
+
+    private final AtomicReference<Node> head = new AtomicReference<>();
+    private final Scheduler scheduler;
+    // 以下只在处理线程中使用，用于把栈反转为提交顺序
+    private int[] ops = new int[16];
+
+    InputIngestor(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 提交添加字符，可在任意线程调用
+     *
+     * @param c 要添加的字符
+     */
+    void offerAdd(char c) {
+        offer(c);
+    }
+
+    /**
+     * 提交删除最后一个字符，可在任意线程调用
+     */
+    void offerRemove() {
+        offer(OP_REMOVE);
+    }
+
+    private void offer(int op) {
+        Node node = new Node(op);
+        Node h;
+        do {
+            h = head.get();
+            node.next = h;
+        } while (!head.compareAndSet(h, node));
+
+        if (null == h)
+            scheduler.schedule();
+    }
+
+    /**
+     * 取出所有已提交的输入，按提交顺序写入数据，只能在一个线程中调用
+     *
+     * @param buffer 数据
+     * @return 取出的输入个数
+     */
+    int drainTo(InputBuffer buffer) {
+        Node node = head.getAndSet(null);
+        int count = 0;
+        for (Node n = node; null != n; n = n.next) {
+            if (count == ops.length) {
+                int[] newOps = new int[count * 2];
+                System.arraycopy(ops, 0, newOps, 0, count);
+                ops = newOps;
+            }
+            ops[count++] = n.op;
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            if (ops[i] == OP_REMOVE)
+                buffer.remove();
+            else
+                buffer.add((char) ops[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 丢弃所有未处理的输入，例如视图被复用时
+     */
+    void discard() {
+        head.set(null);
+    }
+
+    /**
+     * 是否有未处理的输入
+     *
+     * @return true为有未处理的输入
+     */
+    boolean hasPending() {
+        return null != head.get();
+    }
+}
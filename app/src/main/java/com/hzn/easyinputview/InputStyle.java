@@ -0,0 +1,130 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Paint;
+import android.text.TextPaint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 输入框的共享样式，相同文字大小和颜色的输入框共用同一组画笔和字体测量数据。
+ * 创建后不再修改，绘制时按状态选择画笔，不能调用setColor等修改画笔的方法
+ */
+final class InputStyle {
+
+    // 最多缓存的样式个数
+    private static final int CACHE_SIZE = 16;
+
+    private static final Map<InputStyle, InputStyle> cache =
+            new LinkedHashMap<InputStyle, InputStyle>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<InputStyle, InputStyle> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    final int textSize;
+    final int textColor;
+    final int textFillColor;
+    final int fillColor;
+
+    // 以下只在共享实例中创建，用于查找的键中为null
+    final Paint fillPaint;
+    final TextPaint textPaint;
+    final TextPaint textFillPaint;
+    final float ascent;
+    final float descent;
+    // 文字高度
+    final int textHeight;
+    // 字符"t"的宽度，用于计算最小方块宽度
+    final int textWidth;
+
+    /**
+     * 只用于在缓存中查找的键，不创建画笔
+     */
+    private InputStyle(int textSize, int textColor, int textFillColor, int fillColor) {
+        this.textSize = textSize;
+        this.textColor = textColor;
+        this.textFillColor = textFillColor;
+        this.fillColor = fillColor;
+        fillPaint = null;
+        textPaint = null;
+        textFillPaint = null;
+        ascent = 0;
+        descent = 0;
+        textHeight = 0;
+        textWidth = 0;
+    }
+
+    /**
+     * 按键的参数创建共享实例，画笔和字体测量数据创建后不再修改
+     */
+    private InputStyle(InputStyle key) {
+        textSize = key.textSize;
+        textColor = key.textColor;
+        textFillColor = key.textFillColor;
+        fillColor = key.fillColor;
+
+        fillPaint = new Paint();
+        fillPaint.setStyle(Paint.Style.FILL);
+        fillPaint.setColor(fillColor);
+        textPaint = createTextPaint(textSize, textColor);
+        textFillPaint = createTextPaint(textSize, textFillColor);
+
+        Paint.FontMetrics fm = textPaint.getFontMetrics();
+        ascent = fm.ascent;
+        descent = fm.descent;
+        textHeight = (int) (fm.bottom - fm.top);
+        textWidth = (int) textPaint.measureText("t");
+    }
+
+    /**
+     * 获取共享的样式，不存在时创建
+     *
+     * @param textSize      文字大小
+     * @param textColor     文字颜色
+     * @param textFillColor 文字在填充状态时的颜色
+     * @param fillColor     填充颜色
+     * @return 共享的样式
+     */
+    static InputStyle obtain(int textSize, int textColor, int textFillColor, int fillColor) {
+        InputStyle key = new InputStyle(textSize, textColor, textFillColor, fillColor);
+        synchronized (cache) {
+            InputStyle style = cache.get(key);
+            if (null == style) {
+                style = new InputStyle(key);
+                cache.put(style, style);
+            }
+            return style;
+        }
+    }
+
+    private static TextPaint createTextPaint(int textSize, int color) {
+        TextPaint paint = new TextPaint();
+        paint.setAntiAlias(true);
+        paint.setTextSize(textSize);
+        paint.setColor(color);
+        return paint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof InputStyle))
+            return false;
+
+        InputStyle other = (InputStyle) o;
+        return textSize == other.textSize && textColor == other.textColor
+                && textFillColor == other.textFillColor && fillColor == other.fillColor;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = textSize;
+        result = 31 * result + textColor;
+        result = 31 * result + textFillColor;
+        result = 31 * result + fillColor;
+        return result;
+    }
+}
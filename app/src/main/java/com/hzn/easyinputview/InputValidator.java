@@ -0,0 +1,36 @@
+package com.hzn.easyinputview;
+
+/**
+ * 逐字符校验器，在每次添加或删除字符时更新内部状态，不需要每次重新读取全部字符，
+ * 通过EasyInputView.addValidator添加。一次改变多个字符时会先调用reset再逐个调用onAdd
+ */
+public interface InputValidator {
+
+    /**
+     * 在末尾添加了一个字符
+     *
+     * @param index 字符的位置
+     * @param c     字符
+     */
+    void onAdd(int index, char c);
+
+    /**
+     * 删除了末尾的一个字符
+     *
+     * @param index 被删除字符的位置
+     * @param c     被删除的字符
+     */
+    void onRemove(int index, char c);
+
+    /**
+     * 清空状态，相当于删除了所有字符
+     */
+    void reset();
+
+    /**
+     * 当前内容是否有效
+     *
+     * @return true为有效
+     */
+    boolean isValid();
+}
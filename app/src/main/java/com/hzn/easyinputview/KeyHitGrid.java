@@ -0,0 +1,129 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Rect;
+
+import java.util.Arrays;
+
+/**
+ * 按键的命中查找表，在测量后根据按键位置建立，查找一个点对应的按键为常数时间。
+ * 所有按键的左右边界把横向分为若干列，上下边界把纵向分为若干行，
+ * 每个像素对应的列和行以及每个格子对应的按键都预先计算好，跨多列的按键占用多个格子
+ */
+final class KeyHitGrid {
+
+    // 每个x坐标所在的列，-1为不在任何列中
+    private int[] colOfX = new int[0];
+    // 每个y坐标所在的行，-1为不在任何行中
+    private int[] rowOfY = new int[0];
+    // 每个格子对应的按键下标，-1为没有按键
+    private int[] cellKeys = new int[0];
+    private int columns;
+    private int width;
+    private int height;
+
+    /**
+     * 根据按键位置建立查找表，尺寸不变时复用已有的数组
+     *
+     * @param rects 按键位置，下标为按键下标
+     */
+    void build(Rect[] rects) {
+        int n = rects.length;
+        int[] xEdges = new int[n * 2];
+        int[] yEdges = new int[n * 2];
+        width = 0;
+        height = 0;
+        for (int i = 0; i < n; i++) {
+            Rect r = rects[i];
+            xEdges[i * 2] = r.left;
+            xEdges[i * 2 + 1] = r.right;
+            yEdges[i * 2] = r.top;
+            yEdges[i * 2 + 1] = r.bottom;
+            width = Math.max(width, r.right);
+            height = Math.max(height, r.bottom);
+        }
+
+        int xCount = unique(xEdges);
+        int yCount = unique(yEdges);
+        colOfX = fill(colOfX, width, xEdges, xCount);
+        rowOfY = fill(rowOfY, height, yEdges, yCount);
+        columns = Math.max(xCount - 1, 0);
+        int rows = Math.max(yCount - 1, 0);
+        if (cellKeys.length < columns * rows)
+            cellKeys = new int[columns * rows];
+        Arrays.fill(cellKeys, -1);
+
+        for (int i = 0; i < n; i++) {
+            Rect r = rects[i];
+            if (r.left >= r.right || r.top >= r.bottom || r.left < 0 || r.top < 0)
+                continue;
+
+            int c0 = colOfX[r.left];
+            int c1 = colOfX[r.right - 1];
+            int r0 = rowOfY[r.top];
+            int r1 = rowOfY[r.bottom - 1];
+            for (int row = r0; row <= r1; row++) {
+                for (int col = c0; col <= c1; col++) {
+                    // 与线性查找保持一致，重叠时下标小的按键优先
+                    if (cellKeys[row * columns + col] == -1)
+                        cellKeys[row * columns + col] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把每个坐标映射到所在区间
+     *
+     * @param table 原有的表，长度足够时复用
+     * @param size  坐标范围
+     * @param edges 排序去重后的边界
+     * @param count 边界个数
+     * @return 坐标到区间下标的表
+     */
+    private static int[] fill(int[] table, int size, int[] edges, int count) {
+        if (table.length < size)
+            table = new int[size];
+
+        int interval = -1;
+        for (int p = 0; p < size; p++) {
+            while (interval + 1 < count && p >= edges[interval + 1])
+                interval++;
+            table[p] = interval < count - 1 ? interval : -1;
+        }
+        return table;
+    }
+
+    /**
+     * 排序并去重，去重后的边界保存在数组开头
+     *
+     * @param edges 边界
+     * @return 去重后的个数
+     */
+    private static int unique(int[] edges) {
+        Arrays.sort(edges);
+        int count = 0;
+        for (int i = 0; i < edges.length; i++) {
+            if (count == 0 || edges[i] != edges[count - 1])
+                edges[count++] = edges[i];
+        }
+        return count;
+    }
+
+    /**
+     * 获取点对应的按键下标
+     *
+     * @param x 触摸点x坐标
+     * @param y 触摸点y坐标
+     * @return 按键下标，-1为没有按键
+     */
+    int keyAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return -1;
+
+        int col = colOfX[x];
+        int row = rowOfY[y];
+        if (col < 0 || row < 0)
+            return -1;
+        return cellKeys[row * columns + col];
+    }
+}
@@ -0,0 +1,197 @@
+package com.hzn.easyinputview;
+
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.util.SparseArray;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * 键盘布局，由res/xml中的布局文件解析而来，解析后不再修改，同一个布局文件只解析一次，
+ * 所有键盘共用。布局文件格式如下：
+ * <pre>
+ * &lt;Keyboard columns="3"&gt;
+ *     &lt;Row type="func"&gt;
+ *         &lt;Key code="func" label="CONFIRM" span="3"/&gt;
+ *     &lt;/Row&gt;
+ *     &lt;Row&gt;
+ *         &lt;Key label="1"/&gt;
+ *         ...
+ *     &lt;/Row&gt;
+ * &lt;/Keyboard&gt;
+ * </pre>
+ * type为func的行高度为ekbKeyHeight，其他行平分剩余高度；span为按键占的列数，默认为1；
+ * code可以为func，back，clear或者字符的编码，默认为label的字符，label不是单个字符时为0
+ */
+final class KeyboardLayout {
+
+    private static final String TAG_KEYBOARD = "Keyboard";
+    private static final String TAG_ROW = "Row";
+    private static final String TAG_KEY = "Key";
+
+    private static final SparseArray<KeyboardLayout> cache = new SparseArray<>();
+
+    // 列数
+    final int columns;
+    // 行数
+    final int rowCount;
+    // 每行是否为功能键行
+    final boolean[] funcRows;
+    // 以下为每个按键的数据，下标为按键在布局文件中的顺序
+    final int[] rows;
+    final int[] cols;
+    final int[] spans;
+    final int[] codes;
+    final String[] labels;
+
+    private KeyboardLayout(int columns, boolean[] funcRows, int[] rows, int[] cols, int[] spans,
+                           int[] codes, String[] labels) {
+        this.columns = columns;
+        this.rowCount = funcRows.length;
+        this.funcRows = funcRows;
+        this.rows = rows;
+        this.cols = cols;
+        this.spans = spans;
+        this.codes = codes;
+        this.labels = labels;
+    }
+
+    /**
+     * 获取布局，同一个布局文件只解析一次
+     *
+     * @param res   资源
+     * @param resId 布局文件的资源id，例如R.xml.keyboard_number
+     * @return 共享的布局
+     */
+    static KeyboardLayout obtain(Resources res, int resId) {
+        synchronized (cache) {
+            KeyboardLayout layout = cache.get(resId);
+            if (null == layout) {
+                XmlResourceParser parser = res.getXml(resId);
+                try {
+                    layout = parse(parser);
+                } finally {
+                    parser.close();
+                }
+                cache.put(resId, layout);
+            }
+            return layout;
+        }
+    }
+
+    /**
+     * 解析布局文件
+     *
+     * @param parser 布局文件
+     * @return 布局
+     */
+    static KeyboardLayout parse(XmlPullParser parser) {
+        int columns = 0;
+        int row = -1;
+        int col = 0;
+        ArrayList<Boolean> funcRows = new ArrayList<>();
+        ArrayList<int[]> keys = new ArrayList<>();
+        ArrayList<String> labels = new ArrayList<>();
+        try {
+            for (int type = parser.getEventType(); type != XmlPullParser.END_DOCUMENT; type = parser.next()) {
+                if (type != XmlPullParser.START_TAG)
+                    continue;
+
+                String name = parser.getName();
+                if (TAG_KEYBOARD.equals(name)) {
+                    columns = parseInt(parser.getAttributeValue(null, "columns"), 0);
+                    if (columns <= 0)
+                        throw new IllegalArgumentException("columns of keyboard layout must be greater than 0.");
+                } else if (TAG_ROW.equals(name)) {
+                    row++;
+                    col = 0;
+                    funcRows.add("func".equals(parser.getAttributeValue(null, "type")));
+                } else if (TAG_KEY.equals(name)) {
+                    if (row < 0)
+                        throw new IllegalArgumentException("Key must be inside a Row.");
+                    String label = parser.getAttributeValue(null, "label");
+                    if (null == label)
+                        label = "";
+                    int span = parseInt(parser.getAttributeValue(null, "span"), 1);
+                    if (span <= 0 || col + span > columns)
+                        throw new IllegalArgumentException("Keys of row " + row + " exceed " + columns + " columns.");
+                    keys.add(new int[]{row, col, span, parseCode(parser.getAttributeValue(null, "code"), label)});
+                    labels.add(label);
+                    col += span;
+                }
+            }
+        } catch (XmlPullParserException | IOException e) {
+            throw new IllegalArgumentException("Invalid keyboard layout.", e);
+        }
+
+        int count = keys.size();
+        if (columns <= 0 || count == 0)
+            throw new IllegalArgumentException("Keyboard layout must have columns and at least one key.");
+
+        boolean[] funcRowArray = new boolean[funcRows.size()];
+        for (int i = 0; i < funcRowArray.length; i++)
+            funcRowArray[i] = funcRows.get(i);
+        int[] rows = new int[count];
+        int[] cols = new int[count];
+        int[] spans = new int[count];
+        int[] codes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int[] key = keys.get(i);
+            rows[i] = key[0];
+            cols[i] = key[1];
+            spans[i] = key[2];
+            codes[i] = key[3];
+        }
+        return new KeyboardLayout(columns, funcRowArray, rows, cols, spans, codes,
+                labels.toArray(new String[count]));
+    }
+
+    private static int parseInt(String value, int defValue) {
+        if (null == value)
+            return defValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in keyboard layout: " + value);
+        }
+    }
+
+    private static int parseCode(String code, String label) {
+        if (null == code)
+            return label.length() == 1 ? label.charAt(0) : EasyKeyboard.KEY_CODE_NONE;
+        if ("func".equals(code))
+            return EasyKeyboard.KEY_CODE_FUNC;
+        if ("back".equals(code))
+            return EasyKeyboard.KEY_CODE_BACK;
+        if ("clear".equals(code))
+            return EasyKeyboard.KEY_CODE_CLEAR;
+        return parseInt(code, EasyKeyboard.KEY_CODE_NONE);
+    }
+
+    /**
+     * 获取按键个数
+     *
+     * @return 按键个数
+     */
+    int getKeyCount() {
+        return codes.length;
+    }
+
+    /**
+     * 获取功能键行的个数
+     *
+     * @return 功能键行的个数
+     */
+    int getFuncRowCount() {
+        int count = 0;
+        for (boolean func : funcRows) {
+            if (func)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,75 @@
+package com.hzn.easyinputview;
+
+/**
+ * 银行卡号的Luhn校验，每次添加或删除的开销为常数，不产生新对象。
+ * 从右往左数偶数位的数字需要乘2，而最右边的位置随长度变化，因此分别按两种奇偶情况累加，
+ * 长度为偶数时使用下标为偶数的位置乘2的和，长度为奇数时使用下标为奇数的位置乘2的和
+ */
+public class LuhnValidator implements InputValidator {
+
+    // 下标为偶数的数字乘2后的和
+    private int evenDoubledSum;
+    // 下标为奇数的数字乘2后的和
+    private int oddDoubledSum;
+    private int length;
+    // 非数字字符的个数
+    private int invalidCount;
+
+    @Override
+    public void onAdd(int index, char c) {
+        length++;
+        if (c < '0' || c > '9') {
+            invalidCount++;
+            return;
+        }
+
+        int d = c - '0';
+        if ((index & 1) == 0) {
+            evenDoubledSum += doubled(d);
+            oddDoubledSum += d;
+        } else {
+            evenDoubledSum += d;
+            oddDoubledSum += doubled(d);
+        }
+    }
+
+    @Override
+    public void onRemove(int index, char c) {
+        length--;
+        if (c < '0' || c > '9') {
+            invalidCount--;
+            return;
+        }
+
+        int d = c - '0';
+        if ((index & 1) == 0) {
+            evenDoubledSum -= doubled(d);
+            oddDoubledSum -= d;
+        } else {
+            evenDoubledSum -= d;
+            oddDoubledSum -= doubled(d);
+        }
+    }
+
+    @Override
+    public void reset() {
+        evenDoubledSum = 0;
+        oddDoubledSum = 0;
+        length = 0;
+        invalidCount = 0;
+    }
+
+    @Override
+    public boolean isValid() {
+        if (length < 2 || invalidCount > 0)
+            return false;
+
+        int sum = (length & 1) == 0 ? evenDoubledSum : oddDoubledSum;
+        return sum % 10 == 0;
+    }
+
+    private static int doubled(int d) {
+        d *= 2;
+        return d > 9 ? d - 9 : d;
+    }
+}
@@ -4,8 +4,6 @@ import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.view.View;
 
-import java.util.ArrayList;
-
 public class MainActivity extends AppCompatActivity {
 
     private EasyInputView eiv_card;
@@ -32,8 +30,24 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void initKeyboard() {
-        final ArrayList<String> dataList = keyboard.getDataList();
-        keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, true);
+        // 输入满后只能点击功能键，内容改变在下一帧合并通知，不需要每次按键后查询长度
+        eiv_card.setOnTextChangeListener(new EasyInputView.onTextChangeListener() {
+            @Override
+            public void onTextChanged(EasyInputView view, CharSequence text) {
+
+            }
+
+            @Override
+            public void onTextFull(EasyInputView view, boolean full) {
+                keyboard.setDisableKeys(1, 11, full);
+                keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, !full);
+            }
+
+            @Override
+            public void onTextEmpty(EasyInputView view, boolean empty) {
+
+            }
+        });
         keyboard.setOnEasyKeyListener(new EasyKeyboard.onEasyKeyListener() {
             @Override
             public void onKeyDown(View view, int index) {
@@ -49,24 +63,20 @@ public class MainActivity extends AppCompatActivity {
             public void onKeyUp(View view, int index) {
                 if (view instanceof EasyInputView) {
                     EasyInputView iv = (EasyInputView) view;
-                    if (index == EasyKeyboard.KEY_FUNC) {
+                    int code = keyboard.getKeyCode(index);
+                    if (code == EasyKeyboard.KEY_CODE_FUNC) {
                         // 功能键
                         if (iv.getCurLength() == iv.getTextMax())
                             keyboard.hide();
-                    } else if (index == EasyKeyboard.KEY_BACK) {
+                    } else if (code == EasyKeyboard.KEY_CODE_BACK) {
                         // 回退
                         iv.remove();
-                        if (iv.getCurLength() < iv.getTextMax()) {
-                            keyboard.setDisableKeys(1, 11, false);
-                            keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, true);
-                        }
-                    } else {
+                    } else if (code == EasyKeyboard.KEY_CODE_CLEAR) {
+                        // 清空
+                        iv.clear();
+                    } else if (code != EasyKeyboard.KEY_CODE_NONE) {
                         // 数字
-                        iv.add(dataList.get(index));
-                        if (iv.getCurLength() >= iv.getTextMax()) {
-                            keyboard.setDisableKeys(1, 11, true);
-                            keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, false);
-                        }
+                        iv.add((char) code);
                     }
                 }
             }
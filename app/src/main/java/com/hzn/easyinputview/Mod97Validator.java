@@ -0,0 +1,87 @@
+package com.hzn.easyinputview;
+
+/**
+ * IBAN的mod-97校验（ISO 7064），每次添加或删除的开销为常数。
+ * 校验时前4个字符（国家代码和校验位）移到末尾，字母按A=10到Z=35转换为数字，余数为1时有效。
+ * 因此单独保存前4个字符，从第5个字符开始记录每个位置的累计余数，删除时直接回到上一个余数，
+ * 判断是否有效时只需再计算前4个字符
+ */
+public class Mod97Validator implements InputValidator {
+
+    // IBAN的最大长度，超出时才扩容
+    private static final int MAX_LENGTH = 34;
+    private static final int HEAD_LENGTH = 4;
+
+    private final char[] head = new char[HEAD_LENGTH];
+    // 第5个字符起每个位置的累计余数，下标为字符位置减4
+    private int[] remainders = new int[MAX_LENGTH - HEAD_LENGTH];
+    private int length;
+    // 非字母数字字符的个数
+    private int invalidCount;
+
+    @Override
+    public void onAdd(int index, char c) {
+        length++;
+        int value = valueOf(c);
+        if (value < 0)
+            invalidCount++;
+
+        if (index < HEAD_LENGTH) {
+            head[index] = c;
+            return;
+        }
+
+        int i = index - HEAD_LENGTH;
+        if (i >= remainders.length) {
+            int[] newRemainders = new int[remainders.length * 2];
+            System.arraycopy(remainders, 0, newRemainders, 0, remainders.length);
+            remainders = newRemainders;
+        }
+        int prev = i > 0 ? remainders[i - 1] : 0;
+        remainders[i] = value < 0 ? prev : next(prev, value);
+    }
+
+    @Override
+    public void onRemove(int index, char c) {
+        length--;
+        if (valueOf(c) < 0)
+            invalidCount--;
+    }
+
+    @Override
+    public void reset() {
+        length = 0;
+        invalidCount = 0;
+    }
+
+    @Override
+    public boolean isValid() {
+        if (length <= HEAD_LENGTH || invalidCount > 0)
+            return false;
+
+        int r = remainders[length - HEAD_LENGTH - 1];
+        for (int i = 0; i < HEAD_LENGTH; i++)
+            r = next(r, valueOf(head[i]));
+        return r == 1;
+    }
+
+    /**
+     * 字符对应的数值，0到9为数字，10到35为字母，不区分大小写
+     *
+     * @param c 字符
+     * @return 数值，-1为无效字符
+     */
+    private static int valueOf(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'A' && c <= 'Z')
+            return c - 'A' + 10;
+        if (c >= 'a' && c <= 'z')
+            return c - 'a' + 10;
+        return -1;
+    }
+
+    private static int next(int remainder, int value) {
+        return (remainder * (value < 10 ? 10 : 100) + value) % 97;
+    }
+}
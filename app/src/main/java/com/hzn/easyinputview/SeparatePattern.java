@@ -0,0 +1,48 @@
+package com.hzn.easyinputview;
+
+/**
+ * 分离模式的分组规则，例如"4,6,5"表示依次为4个、6个、5个字符一组，
+ * 规则用完后按最后一组的个数继续分组，因此"4"与每4个字符分隔一次相同
+ */
+final class SeparatePattern {
+
+    private SeparatePattern() {
+    }
+
+    /**
+     * 解析分组规则
+     *
+     * @param pattern 以逗号分隔的每组个数，例如"4,6,5"
+     * @return 每组个数
+     */
+    static int[] parse(String pattern) {
+        if (null == pattern || pattern.trim().length() == 0)
+            throw new IllegalArgumentException("Separate pattern must not be empty.");
+
+        String[] parts = pattern.split(",");
+        int[] groups = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                groups[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid separate pattern: " + pattern);
+            }
+        }
+        check(groups);
+        return groups;
+    }
+
+    /**
+     * 检查分组规则
+     *
+     * @param groups 每组个数，每个值都必须大于0
+     */
+    static void check(int[] groups) {
+        if (null == groups || groups.length == 0)
+            throw new IllegalArgumentException("Separate pattern must not be empty.");
+        for (int group : groups) {
+            if (group <= 0)
+                throw new IllegalArgumentException("Size of each separate group must be greater than 0.");
+        }
+    }
+}
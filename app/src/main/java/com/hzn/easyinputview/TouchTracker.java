@@ -0,0 +1,131 @@
+package com.hzn.easyinputview;
+
+import java.util.Arrays;
+
+/**
+ * 触摸点与按下按键的跟踪，移动时不需要重新查找按键。
+ * 按下时记录按下位置和按键向外扩展迟滞距离后的边界，移动距离在触摸阈值内或者仍在边界内时保持按下，
+ * 移出边界后才取消，避免手指停在按键边缘时的抖动导致误取消
+ */
+final class TouchTracker {
+
+    // 最多同时跟踪的触摸点个数，触摸点id超出时不处理
+    static final int MAX_POINTERS = 32;
+
+    // 每个触摸点id按下的按键下标，-1为没有按下
+    private final int[] keys = new int[MAX_POINTERS];
+    private final float[] downX = new float[MAX_POINTERS];
+    private final float[] downY = new float[MAX_POINTERS];
+    // 按下时的触摸阈值的平方
+    private final float[] slopSquares = new float[MAX_POINTERS];
+    // 扩展后的边界
+    private final int[] lefts = new int[MAX_POINTERS];
+    private final int[] tops = new int[MAX_POINTERS];
+    private final int[] rights = new int[MAX_POINTERS];
+    private final int[] bottoms = new int[MAX_POINTERS];
+
+    // 触摸阈值的平方，移动距离在阈值内时不取消
+    private float slopSquare;
+    // 迟滞距离，按键边界向外扩展的距离
+    private int hysteresis;
+
+    TouchTracker() {
+        clear();
+    }
+
+    /**
+     * @param slop 触摸阈值，单位px，只对之后按下的触摸点生效
+     */
+    void setSlop(int slop) {
+        this.slopSquare = (float) slop * slop;
+    }
+
+    /**
+     * @param hysteresis 迟滞距离，单位px，只对之后按下的触摸点生效
+     */
+    void setHysteresis(int hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    /**
+     * 记录按下
+     *
+     * @param pointerId 触摸点id
+     * @param key       按下的按键下标
+     * @param left      按键左边界
+     * @param top       按键上边界
+     * @param right     按键右边界
+     * @param bottom    按键下边界
+     * @param x         按下位置x坐标
+     * @param y         按下位置y坐标
+     * @return true为开始跟踪，false为触摸点id超出范围
+     */
+    boolean down(int pointerId, int key, int left, int top, int right, int bottom, float x, float y) {
+        if (pointerId < 0 || pointerId >= MAX_POINTERS)
+            return false;
+
+        keys[pointerId] = key;
+        downX[pointerId] = x;
+        downY[pointerId] = y;
+        slopSquares[pointerId] = slopSquare;
+        lefts[pointerId] = left - hysteresis;
+        tops[pointerId] = top - hysteresis;
+        rights[pointerId] = right + hysteresis;
+        bottoms[pointerId] = bottom + hysteresis;
+        return true;
+    }
+
+    /**
+     * 处理一个移动采样点，只做边界比较
+     *
+     * @param pointerId 触摸点id
+     * @param x         采样点x坐标
+     * @param y         采样点y坐标
+     * @return 被取消的按键下标，-1为没有取消
+     */
+    int move(int pointerId, float x, float y) {
+        int key = keyOf(pointerId);
+        if (key == -1)
+            return -1;
+
+        float dx = x - downX[pointerId];
+        float dy = y - downY[pointerId];
+        if (dx * dx + dy * dy <= slopSquares[pointerId])
+            return -1;
+        if (x >= lefts[pointerId] && x < rights[pointerId] && y >= tops[pointerId] && y < bottoms[pointerId])
+            return -1;
+
+        keys[pointerId] = -1;
+        return key;
+    }
+
+    /**
+     * 抬起触摸点
+     *
+     * @param pointerId 触摸点id
+     * @return 抬起的按键下标，-1为没有按下
+     */
+    int up(int pointerId) {
+        int key = keyOf(pointerId);
+        if (key != -1)
+            keys[pointerId] = -1;
+        return key;
+    }
+
+    /**
+     * 获取触摸点按下的按键
+     *
+     * @param pointerId 触摸点id
+     * @return 按键下标，-1为没有按下
+     */
+    int keyOf(int pointerId) {
+        return pointerId >= 0 && pointerId < MAX_POINTERS ? keys[pointerId] : -1;
+    }
+
+    /**
+     * 清空所有触摸点
+     */
+    void clear() {
+        Arrays.fill(keys, -1);
+    }
+}
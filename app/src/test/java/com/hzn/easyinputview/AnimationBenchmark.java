@@ -0,0 +1,86 @@
+package com.hzn.easyinputview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 动画步进与位置表的基准测试，不依赖Android环境
+ */
+public class AnimationBenchmark {
+
+    private static final int ITERATIONS = 2000000;
+
+    private final int[] sink = new int[1];
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Benchmark.ENABLED);
+    }
+
+    @Test
+    public void animatorStep() throws Exception {
+        final InputAnimator animator = new InputAnimator();
+        Benchmark.Result result = Benchmark.run("InputAnimator.update", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                int frame = i % 8;
+                if (frame == 0)
+                    animator.start(0, 40, 100);
+                animator.update(frame * 16666667L);
+                sink[0] += animator.getValue();
+            }
+        });
+        Benchmark.assertNoAllocation(result);
+    }
+
+    @Test
+    public void glyphLayoutDrawLookups() throws Exception {
+        final GlyphLayout layout = new GlyphLayout();
+        layout.setSlots(19, 36, new int[]{4}, 24);
+        final InputBuffer buffer = new InputBuffer(19);
+        final GlyphLayout.Measurer measurer = new GlyphLayout.Measurer() {
+            @Override
+            public float measureText(char[] text, int index, int count) {
+                return 20 * count;
+            }
+        };
+        for (int i = 0; i < 19; i++)
+            buffer.add((char) ('0' + i % 10));
+        layout.update(buffer, measurer);
+
+        Benchmark.Result result = Benchmark.run("GlyphLayout frame lookups (19 slots)", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                int sum = 0;
+                for (int s = 0; s < layout.getCount(); s++)
+                    sum += layout.getGlyphX(s);
+                sink[0] += sum + layout.lengthOf(i % 19);
+            }
+        });
+        Benchmark.assertNoAllocation(result);
+    }
+
+    @Test
+    public void inputBufferAddRemove() throws Exception {
+        final InputBuffer buffer = new InputBuffer(19);
+        final GlyphLayout layout = new GlyphLayout();
+        layout.setSlots(19, 36, new int[]{4}, 24);
+        final GlyphLayout.Measurer measurer = new GlyphLayout.Measurer() {
+            @Override
+            public float measureText(char[] text, int index, int count) {
+                return 20 * count;
+            }
+        };
+        Benchmark.Result result = Benchmark.run("InputBuffer add/remove + layout update", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                if (!buffer.add((char) ('0' + i % 10)))
+                    buffer.clear();
+                layout.update(buffer, measurer);
+            }
+        });
+        Benchmark.assertNoAllocation(result);
+    }
+}
@@ -0,0 +1,114 @@
+package com.hzn.easyinputview;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 简单的JVM基准测试工具，统计每秒操作数和每次操作分配的字节数。
+ * 只在运行 ./gradlew testDebugUnitTest -Pbenchmark 时执行
+ */
+final class Benchmark {
+
+    static final boolean ENABLED = Boolean.getBoolean("easyinputview.benchmark");
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * 被测操作
+     */
+    interface Op {
+        /**
+         * @param i 第几次调用，可用于变换输入，避免被优化掉
+         */
+        void run(int i);
+    }
+
+    /**
+     * 测试结果
+     */
+    static final class Result {
+        final String name;
+        final double opsPerSec;
+        /**
+         * 每次操作分配的字节数，JVM不支持统计时为-1
+         */
+        final double bytesPerOp;
+
+        Result(String name, double opsPerSec, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSec = opsPerSec;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %14.0f ops/s %10.1f B/op", name, opsPerSec, bytesPerOp);
+        }
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * 预热后执行iterations次，输出并返回结果
+     *
+     * @param name       名称
+     * @param iterations 每轮执行次数
+     * @param op         被测操作
+     * @return 测试结果
+     */
+    static Result run(String name, int iterations, Op op) {
+        for (int r = 0; r < WARMUP_ROUNDS; r++) {
+            for (int i = 0; i < iterations; i++)
+                op.run(i);
+        }
+
+        long allocStart = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            op.run(i);
+        long elapsed = System.nanoTime() - start;
+        long allocEnd = allocatedBytes();
+
+        Result result = new Result(name, iterations * 1e9 / elapsed,
+                allocStart < 0 || allocEnd < 0 ? -1 : (double) (allocEnd - allocStart) / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * JVM不支持统计分配时跳过测试，避免-1让分配断言直接通过
+     *
+     * @param results 测试结果
+     */
+    static void assumeAllocationTracked(Result... results) {
+        for (Result result : results)
+            assumeTrue(result.bytesPerOp >= 0);
+    }
+
+    /**
+     * 断言每次操作不分配对象，JVM不支持统计分配时跳过测试
+     *
+     * @param result 测试结果
+     */
+    static void assertNoAllocation(Result result) {
+        assumeAllocationTracked(result);
+        assertTrue(result.toString(), result.bytesPerOp < 1);
+    }
+
+    /**
+     * 当前线程已分配的字节数，JVM不支持时返回-1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,185 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * EasyInputView测量与绘制路径的基准测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class EasyInputViewBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    private EasyInputView view;
+    private CountingCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Benchmark.ENABLED);
+        view = new EasyInputView(RuntimeEnvironment.application);
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        view.measure(spec, spec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        canvas = new CountingCanvas();
+    }
+
+    @Test
+    public void onMeasure() throws Exception {
+        final int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        Benchmark.run("EasyInputView.onMeasure", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                view.onMeasure(spec, spec);
+            }
+        });
+    }
+
+    @Test
+    public void construct50Instances() throws Exception {
+        final int count = 50;
+        final EasyInputView[] views = new EasyInputView[count];
+        Benchmark.run("new EasyInputView x50 (shared style)", ITERATIONS / 1000, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                for (int n = 0; n < count; n++)
+                    views[n] = new EasyInputView(RuntimeEnvironment.application);
+            }
+        });
+    }
+
+    @Test
+    public void styleSharing() throws Exception {
+        final int count = 50;
+        final int textSize = 48;
+        final Object[] sink = new Object[count];
+        // 不共享时每个实例各自创建画笔并测量字体，与共享前的构造过程相同
+        Benchmark.Result own = Benchmark.run("style per instance x50 (baseline)", ITERATIONS / 100, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                for (int n = 0; n < count; n++) {
+                    Paint fillPaint = new Paint();
+                    fillPaint.setStyle(Paint.Style.FILL);
+                    fillPaint.setColor(Color.GRAY);
+                    TextPaint textPaint = newTextPaint(textSize, Color.BLACK);
+                    TextPaint textFillPaint = newTextPaint(textSize, Color.WHITE);
+                    textPaint.getFontMetrics();
+                    textPaint.measureText("t");
+                    sink[n] = textFillPaint;
+                }
+            }
+        });
+        Benchmark.Result shared = Benchmark.run("InputStyle.obtain x50 (shared)", ITERATIONS / 100, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                for (int n = 0; n < count; n++)
+                    sink[n] = InputStyle.obtain(textSize, Color.BLACK, Color.WHITE, Color.GRAY);
+            }
+        });
+        Benchmark.assumeAllocationTracked(own, shared);
+        assertTrue(shared.bytesPerOp < own.bytesPerOp);
+    }
+
+    private static TextPaint newTextPaint(int textSize, int color) {
+        TextPaint paint = new TextPaint();
+        paint.setAntiAlias(true);
+        paint.setTextSize(textSize);
+        paint.setColor(color);
+        return paint;
+    }
+
+    @Test
+    public void bindRecycledRows() throws Exception {
+        final EasyInputView.State[] rows = new EasyInputView.State[200];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = new EasyInputView.State(String.valueOf(1000 + i));
+        Benchmark.Result result = Benchmark.run("EasyInputView reset/bind (200 rows)", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                view.reset();
+                view.bind(rows[i % rows.length]);
+            }
+        });
+        Benchmark.assertNoAllocation(result);
+    }
+
+    @Test
+    public void recycleRowsWithDetach() throws Exception {
+        final EasyInputView.State[] rows = new EasyInputView.State[200];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = new EasyInputView.State(String.valueOf(1000 + i));
+        view.onDraw(canvas);
+        // 与RecyclerView回收时相同：移出窗口，清空，重新绑定后绘制
+        Benchmark.Result result = Benchmark.run("EasyInputView detach/reset/bind/draw (200 rows)", ITERATIONS,
+                new Benchmark.Op() {
+                    @Override
+                    public void run(int i) {
+                        view.onDetachedFromWindow();
+                        view.reset();
+                        view.bind(rows[i % rows.length]);
+                        view.onDraw(canvas);
+                    }
+                });
+        Benchmark.assertNoAllocation(result);
+    }
+
+    @Test
+    public void mixedAddRemove() throws Exception {
+        final int max = 19;
+        view.setTextMax(max);
+        // 预先生成操作序列，避免把随机数的耗时计入
+        final boolean[] adds = new boolean[4096];
+        Random random = new Random(20161110);
+        for (int i = 0; i < adds.length; i++)
+            adds[i] = random.nextInt(3) > 0;
+        final StringBuilder expected = new StringBuilder();
+        // 经过EasyInputView的完整路径：动画合并、位置表更新及局部重绘
+        Benchmark.Result result = Benchmark.run("EasyInputView mixed add/remove", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                if (adds[i & (adds.length - 1)]) {
+                    char c = (char) ('0' + i % 10);
+                    view.add(c);
+                    if (expected.length() < max)
+                        expected.append(c);
+                } else {
+                    view.remove();
+                    if (expected.length() > 0)
+                        expected.setLength(expected.length() - 1);
+                }
+            }
+        });
+        assertEquals(expected.toString(), view.getText().toString());
+        assertTrue("ops/sec " + result.opsPerSec, result.opsPerSec > 10000);
+    }
+
+    @Test
+    public void onDraw() throws Exception {
+        view.add('1');
+        view.add('2');
+        view.add('3');
+        int measureCount = view.getMeasureCount();
+        Benchmark.run("EasyInputView.onDraw (3 glyphs)", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                view.onDraw(canvas);
+            }
+        });
+        assertEquals(measureCount, view.getMeasureCount());
+    }
+}
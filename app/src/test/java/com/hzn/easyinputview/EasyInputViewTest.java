@@ -0,0 +1,185 @@
+package com.hzn.easyinputview;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * EasyInputView输入及通知的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class EasyInputViewTest {
+
+    private static final int MAX = 19;
+
+    private EasyInputView view;
+
+    @Before
+    public void setUp() throws Exception {
+        view = new EasyInputView(RuntimeEnvironment.application);
+        view.setTextMax(MAX);
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        view.measure(spec, spec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    @Test
+    public void burst_noInputDropped() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        Random random = new Random(20161110);
+
+        // 同一帧内连续增删，动画进行中的每次输入都需要立即生效
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextInt(3) > 0) {
+                char d = (char) ('0' + random.nextInt(10));
+                view.add(d);
+                if (expected.length() < MAX)
+                    expected.append(d);
+            } else {
+                view.remove();
+                if (expected.length() > 0)
+                    expected.setLength(expected.length() - 1);
+            }
+            assertEquals(expected.toString(), view.getText().toString());
+        }
+    }
+
+    @Test
+    public void addString_addsEveryChar() throws Exception {
+        view.add("10");
+        assertEquals("10", view.getText().toString());
+        assertEquals(2, view.getCurLength());
+
+        // 超出最大个数的部分不添加
+        view.add("12345678901234567890");
+        assertEquals(MAX, view.getCurLength());
+        assertEquals("10" + "12345678901234567", view.getText().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setTextMode_rejectsUnknownMode() throws Exception {
+        view.setTextMode(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFillMode_rejectsUnknownMode() throws Exception {
+        view.setFillMode(3);
+    }
+
+    @Test
+    public void setSeparate_clearsPatternWithSameValues() throws Exception {
+        view.setTextMode(EasyInputView.MODE_SEPARATE);
+        view.setSeparate(4, 10);
+        int grouped = remeasure();
+
+        // 4,6,5,5比每4个一组少一个间隔
+        view.setSeparatePattern(4, 6, 5);
+        assertEquals(grouped - 10, remeasure());
+
+        view.setSeparate(4, 10);
+        assertEquals(grouped, remeasure());
+    }
+
+    @Test
+    public void relayout_doesNotNotifyTextChanged() throws Exception {
+        final int[] changes = new int[1];
+        view.setOnTextChangeListener(new EasyInputView.onTextChangeListener() {
+            @Override
+            public void onTextChanged(EasyInputView view, CharSequence text) {
+                changes[0]++;
+            }
+
+            @Override
+            public void onTextFull(EasyInputView view, boolean full) {
+            }
+
+            @Override
+            public void onTextEmpty(EasyInputView view, boolean empty) {
+            }
+        });
+        changes[0] = 0;
+
+        // 只改变尺寸或分隔，以及清空已经为空的内容，都不通知
+        view.setTextSize(40);
+        view.setTextMax(MAX + 1);
+        view.setSeparate(3, 20);
+        view.reset();
+        view.bind(new EasyInputView.State(""));
+        view.clear(false);
+        view.setText("", false);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(0, changes[0]);
+
+        view.add('1');
+        view.bind(new EasyInputView.State("1"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(1, changes[0]);
+
+        // 删除超出部分的字符时内容改变
+        view.append("2345");
+        view.setTextMax(2);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(2, changes[0]);
+        assertEquals("12", view.getText().toString());
+    }
+
+    @Test
+    public void inputConnection_composingAndControlChars() throws Exception {
+        EasyInputConnection connection = new EasyInputConnection(view);
+        connection.setComposingText("1", 1);
+        connection.setComposingText("12", 1);
+        assertEquals("12", view.getText().toString());
+        connection.finishComposingText();
+
+        // 控制字符不写入
+        connection.commitText("3\n\t", 1);
+        assertEquals("123", view.getText().toString());
+
+        // 提交时替换组合中的文字
+        connection.setComposingText("45", 1);
+        assertEquals("12345", view.getText().toString());
+        connection.commitText("6", 1);
+        assertEquals("1236", view.getText().toString());
+
+        connection.deleteSurroundingText(2, 0);
+        assertEquals("12", view.getText().toString());
+    }
+
+    @Test
+    public void animationFrames_doNotMeasure() throws Exception {
+        EasyMetrics metrics = new EasyMetrics();
+        view.setMetrics(metrics);
+        CountingCanvas canvas = new CountingCanvas();
+        view.add('1');
+        view.add('2');
+        view.add('3');
+        int measureCount = view.getMeasureCount();
+
+        // 逐帧推进动画，每帧都绘制一次
+        for (int i = 0; i < 30; i++) {
+            Robolectric.getForegroundThreadScheduler().advanceBy(16);
+            view.onDraw(canvas);
+            assertEquals(measureCount, view.getMeasureCount());
+        }
+        assertTrue(metrics.getAnimationFrames() > 1);
+        assertEquals(30, metrics.inputDraw.getCount());
+    }
+
+    private int remeasure() {
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        view.measure(spec, spec);
+        return view.getMeasuredWidth();
+    }
+}
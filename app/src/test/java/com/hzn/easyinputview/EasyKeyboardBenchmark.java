@@ -0,0 +1,162 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * EasyKeyboard命中测试与绘制路径的基准测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class EasyKeyboardBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    private EasyKeyboard keyboard;
+    private int width;
+    private int height;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(Benchmark.ENABLED);
+        keyboard = new EasyKeyboard(RuntimeEnvironment.application);
+        keyboard.show(null);
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        keyboard.measure(spec, spec);
+        width = keyboard.getMeasuredWidth();
+        height = keyboard.getMeasuredHeight();
+        keyboard.layout(0, 0, width, height);
+    }
+
+    @Test
+    public void getPointIndex() throws Exception {
+        Benchmark.run("EasyKeyboard.getPointIndex", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                keyboard.getPointIndex((i * 31) % width, (i * 17) % height);
+            }
+        });
+    }
+
+    @Test
+    public void getNewPointIndex() throws Exception {
+        Benchmark.run("EasyKeyboard.getNewPointIndex", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                keyboard.getNewPointIndex((i * 31) % width, (i * 17) % height);
+            }
+        });
+    }
+
+    @Test
+    public void hitTest_13Keys() throws Exception {
+        compareHitTest(13, KeyHitGridTest.keyRects(3, 4, true, width, height - height / 5, height / 5));
+    }
+
+    @Test
+    public void hitTest_60Keys() throws Exception {
+        compareHitTest(60, KeyHitGridTest.keyRects(12, 5, false, width, height, 0));
+    }
+
+    /**
+     * 对比线性查找与命中查找表
+     */
+    private void compareHitTest(int keys, final Rect[] rects) {
+        final KeyHitGrid grid = new KeyHitGrid();
+        grid.build(rects);
+        Benchmark.Result linear = Benchmark.run("hitTest linear scan, " + keys + " keys", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                KeyHitGridTest.linearScan(rects, (i * 31) % width, (i * 17) % height);
+            }
+        });
+        Benchmark.Result indexed = Benchmark.run("hitTest KeyHitGrid, " + keys + " keys", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                grid.keyAt((i * 31) % width, (i * 17) % height);
+            }
+        });
+        System.out.println(String.format("hitTest %d keys speedup: %.1fx", keys, indexed.opsPerSec / linear.opsPerSec));
+    }
+
+    @Test
+    public void onTouchEvent() throws Exception {
+        // 按下、移动、抬起，事件预先创建，统计处理过程中的分配
+        final MotionEvent[] events = {
+                MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, width / 2, height / 2, 0),
+                MotionEvent.obtain(0, 8, MotionEvent.ACTION_MOVE, width / 2 + 1, height / 2, 0),
+                MotionEvent.obtain(0, 16, MotionEvent.ACTION_MOVE, width / 2 + 2, height / 2 + 1, 0),
+                MotionEvent.obtain(0, 24, MotionEvent.ACTION_UP, width / 2 + 2, height / 2 + 1, 0),
+        };
+        Benchmark.run("EasyKeyboard.onTouchEvent", ITERATIONS, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                keyboard.onTouchEvent(events[i & 3]);
+            }
+        });
+        for (MotionEvent event : events)
+            event.recycle();
+    }
+
+    @Test
+    public void onDraw() throws Exception {
+        final CountingCanvas canvas = new CountingCanvas();
+        keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, true);
+        Benchmark.run("EasyKeyboard.onDraw", ITERATIONS / 10, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                keyboard.onDraw(canvas);
+            }
+        });
+    }
+
+    @Test
+    public void onDraw_faceCache() throws Exception {
+        // 一个禁用的按键和一个按下的按键，对比每帧重新绘制全部按键与绘制缓存图层
+        final CountingCanvas canvas = new CountingCanvas();
+        final EasyKeyboard uncached = new EasyKeyboard(RuntimeEnvironment.application, null, 0, false);
+        uncached.show(null);
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        uncached.measure(spec, spec);
+        uncached.layout(0, 0, width, height);
+        for (EasyKeyboard k : new EasyKeyboard[]{keyboard, uncached}) {
+            k.setDisableKey(EasyKeyboard.KEY_FUNC, true);
+            MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, width / 2, height / 2, 0);
+            k.onTouchEvent(down);
+            down.recycle();
+        }
+
+        Benchmark.Result full = Benchmark.run("EasyKeyboard.onDraw (full redraw)", ITERATIONS / 10, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                uncached.onDraw(canvas);
+            }
+        });
+        canvas.drawCalls = 0;
+        uncached.onDraw(canvas);
+        int fullCalls = canvas.drawCalls;
+
+        Benchmark.Result cached = Benchmark.run("EasyKeyboard.onDraw (face cache)", ITERATIONS / 10, new Benchmark.Op() {
+            @Override
+            public void run(int i) {
+                keyboard.onDraw(canvas);
+            }
+        });
+        canvas.drawCalls = 0;
+        keyboard.onDraw(canvas);
+        System.out.println(String.format("onDraw draw calls/frame: %d -> %d, frame time %.0f -> %.0f ns",
+                fullCalls, canvas.drawCalls, 1e9 / full.opsPerSec, 1e9 / cached.opsPerSec));
+        assertTrue(canvas.drawCalls < fullCalls);
+    }
+}
@@ -0,0 +1,309 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * EasyKeyboard按键状态及触摸处理的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class EasyKeyboardTest {
+
+    private EasyKeyboard keyboard;
+    private final StringBuilder events = new StringBuilder();
+    // 重绘次数及最后一次重绘的区域，null为整体重绘
+    private int invalidates;
+    private Rect lastDirty;
+    // 所有局部重绘区域的并集
+    private final Rect dirtyUnion = new Rect();
+    // 请求重新布局的次数
+    private int layouts;
+
+    @Before
+    public void setUp() throws Exception {
+        keyboard = new EasyKeyboard(RuntimeEnvironment.application) {
+            @Override
+            public void invalidate() {
+                super.invalidate();
+                invalidates++;
+                lastDirty = null;
+            }
+
+            @Override
+            public void invalidate(Rect dirty) {
+                super.invalidate(dirty);
+                invalidates++;
+                lastDirty = new Rect(dirty);
+                dirtyUnion.union(dirty);
+            }
+
+            @Override
+            public void requestLayout() {
+                super.requestLayout();
+                layouts++;
+            }
+        };
+        keyboard.show(null);
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        keyboard.measure(spec, spec);
+        keyboard.layout(0, 0, keyboard.getMeasuredWidth(), keyboard.getMeasuredHeight());
+        keyboard.setOnEasyKeyListener(new EasyKeyboard.onEasyKeyListener() {
+            @Override
+            public void onKeyDown(View view, int index) {
+                events.append("down").append(index).append(' ');
+            }
+
+            @Override
+            public void onKeyCancel(View view, int index) {
+                events.append("cancel").append(index).append(' ');
+            }
+
+            @Override
+            public void onKeyUp(View view, int index) {
+                events.append("up").append(index).append(' ');
+            }
+        });
+    }
+
+    @Test
+    public void setDisableKey_canReEnable() throws Exception {
+        keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, true);
+        assertTrue(keyboard.isKeyDisabled(EasyKeyboard.KEY_FUNC));
+        keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, false);
+        assertFalse(keyboard.isKeyDisabled(EasyKeyboard.KEY_FUNC));
+    }
+
+    @Test
+    public void setDisableKeys_replacesDisabledSet() throws Exception {
+        keyboard.setDisableKey(EasyKeyboard.KEY_FUNC, true);
+        keyboard.setDisableKeys(1, 11, true);
+        assertFalse(keyboard.isKeyDisabled(EasyKeyboard.KEY_FUNC));
+        assertTrue(keyboard.isKeyDisabled(1));
+        assertTrue(keyboard.isKeyDisabled(11));
+        assertFalse(keyboard.isKeyDisabled(EasyKeyboard.KEY_BACK));
+
+        keyboard.setDisableKeys(1, 11, false);
+        for (int i = 0; i < keyboard.getKeyCount(); i++)
+            assertFalse(keyboard.isKeyDisabled(i));
+    }
+
+    @Test
+    public void touch_downMoveOutUp() throws Exception {
+        int[] p5 = pointOf(5);
+        int[] p9 = pointOf(9);
+        touch(MotionEvent.ACTION_DOWN, p5);
+        touch(MotionEvent.ACTION_MOVE, p5);
+        touch(MotionEvent.ACTION_MOVE, p9);
+        touch(MotionEvent.ACTION_UP, p9);
+        assertEquals("down5 cancel5 ", events.toString());
+
+        events.setLength(0);
+        touch(MotionEvent.ACTION_DOWN, p9);
+        touch(MotionEvent.ACTION_UP, p9);
+        assertEquals("down9 up9 ", events.toString());
+    }
+
+    @Test
+    public void setDisableKeysInOnKeyUp_stillInvalidatesReleasedKey() throws Exception {
+        keyboard.setDisableKeys(1, 11, true);
+        keyboard.setOnEasyKeyListener(new EasyKeyboard.onEasyKeyListener() {
+            @Override
+            public void onKeyDown(View view, int index) {
+            }
+
+            @Override
+            public void onKeyCancel(View view, int index) {
+            }
+
+            @Override
+            public void onKeyUp(View view, int index) {
+                // 与MainActivity相同，在回调中恢复按键
+                keyboard.setDisableKeys(1, 11, false);
+            }
+        });
+        int[] p = pointOf(EasyKeyboard.KEY_FUNC);
+        touch(MotionEvent.ACTION_DOWN, p);
+        dirtyUnion.setEmpty();
+        touch(MotionEvent.ACTION_UP, p);
+        assertFalse(keyboard.isKeyDisabled(1));
+        assertTrue(dirtyUnion.contains(p[0], p[1]));
+    }
+
+    @Test
+    public void touch_batchedMoveCancelsOnHistoricalSample() throws Exception {
+        keyboard.setTouchTolerance(8, 12);
+        int[] p5 = pointOf(5);
+        int[] p8 = pointOf(8);
+        int[] p9 = pointOf(9);
+        touch(MotionEvent.ACTION_DOWN, p5);
+
+        // 两个历史采样点都已移出按键5，最后一个采样点又回到按键5内，只取消一次
+        MotionEvent event = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, p9[0], p9[1], 0);
+        event.addBatch(20, p8[0], p8[1], 1, 1, 0);
+        event.addBatch(30, p5[0], p5[1], 1, 1, 0);
+        assertEquals(2, event.getHistorySize());
+        keyboard.onTouchEvent(event);
+        event.recycle();
+        touch(MotionEvent.ACTION_UP, p5);
+        assertEquals("down5 cancel5 ", events.toString());
+    }
+
+    @Test
+    public void touch_batchedMoveInsideKeyKeepsPressed() throws Exception {
+        keyboard.setTouchTolerance(8, 12);
+        int[] p5 = pointOf(5);
+        touch(MotionEvent.ACTION_DOWN, p5);
+
+        MotionEvent event = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, p5[0] + 1, p5[1], 0);
+        event.addBatch(20, p5[0] + 2, p5[1] + 1, 1, 1, 0);
+        event.addBatch(30, p5[0], p5[1], 1, 1, 0);
+        keyboard.onTouchEvent(event);
+        event.recycle();
+        touch(MotionEvent.ACTION_UP, p5);
+        assertEquals("down5 up5 ", events.toString());
+    }
+
+    @Test
+    public void touch_disabledKeyIgnored() throws Exception {
+        keyboard.setDisableKey(3, true);
+        assertFalse(touch(MotionEvent.ACTION_DOWN, pointOf(3)));
+        assertEquals("", events.toString());
+    }
+
+    @Test
+    public void touch_invalidatesChangedKeysOnly() throws Exception {
+        int[] p5 = pointOf(5);
+        invalidates = 0;
+        touch(MotionEvent.ACTION_DOWN, p5);
+        assertEquals(1, invalidates);
+        assertNotNull(lastDirty);
+        assertTrue(lastDirty.contains(p5[0], p5[1]));
+        assertTrue(lastDirty.width() < keyboard.getMeasuredWidth());
+
+        // 在按键内移动不重绘
+        for (int i = 0; i < 20; i++)
+            touch(MotionEvent.ACTION_MOVE, new int[]{p5[0] + (i & 1), p5[1] + (i & 1)});
+        assertEquals(1, invalidates);
+
+        touch(MotionEvent.ACTION_UP, p5);
+        assertEquals(2, invalidates);
+    }
+
+    @Test
+    public void setDisableKey_invalidatesOnlyOnChange() throws Exception {
+        invalidates = 0;
+        keyboard.setDisableKey(3, true);
+        keyboard.setDisableKey(3, true);
+        assertEquals(1, invalidates);
+        assertTrue(lastDirty.contains(pointOf(3)[0], pointOf(3)[1]));
+
+        keyboard.setDisableKeys(1, 11, true);
+        keyboard.setDisableKeys(1, 11, true);
+        assertEquals(2, invalidates);
+    }
+
+    @Test
+    public void hideModeInvisible_noLayoutAndKeepsSize() throws Exception {
+        int measuredHeight = keyboard.getMeasuredHeight();
+        keyboard.setHideMode(EasyKeyboard.HIDE_MODE_INVISIBLE);
+        layouts = 0;
+        for (int i = 0; i < 3; i++) {
+            keyboard.hide();
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            assertEquals(EasyKeyboard.STATE_HIDE, keyboard.getState());
+            assertEquals(View.INVISIBLE, keyboard.getVisibility());
+            assertEquals(measuredHeight, remeasure());
+
+            keyboard.show(null);
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            assertEquals(EasyKeyboard.STATE_SHOW, keyboard.getState());
+            assertEquals(View.VISIBLE, keyboard.getVisibility());
+            assertEquals(1.0f, keyboard.getAlpha(), 0.0f);
+            assertEquals(0.0f, keyboard.getTranslationY(), 0.0f);
+        }
+        assertEquals(0, layouts);
+    }
+
+    @Test
+    public void hideModeCollapse_measuresZero() throws Exception {
+        layouts = 0;
+        keyboard.hide();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(EasyKeyboard.STATE_HIDE, keyboard.getState());
+        assertEquals(1, layouts);
+        assertEquals(0, remeasure());
+
+        keyboard.show(null);
+        assertEquals(2, layouts);
+        assertTrue(remeasure() > 0);
+    }
+
+    @Test
+    public void showDuringHide_staysShown() throws Exception {
+        keyboard.setHideMode(EasyKeyboard.HIDE_MODE_INVISIBLE);
+        keyboard.hide();
+        assertEquals(EasyKeyboard.STATE_ANIM, keyboard.getState());
+        keyboard.show(null);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(EasyKeyboard.STATE_SHOW, keyboard.getState());
+        assertEquals(View.VISIBLE, keyboard.getVisibility());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setHideMode_rejectsUnknownMode() throws Exception {
+        keyboard.setHideMode(2);
+    }
+
+    @Test
+    public void setLayout_touchBeforeMeasureIgnored() throws Exception {
+        keyboard.setLayout(R.xml.keyboard_hex);
+        remeasure();
+        keyboard.layout(0, 0, keyboard.getMeasuredWidth(), keyboard.getMeasuredHeight());
+        int[] last = pointOf(keyboard.getKeyCount() - 1);
+
+        // 切换到按键更少的布局后、重新测量前的触摸不命中任何按键
+        keyboard.setLayout(R.xml.keyboard_number);
+        assertEquals(-1, keyboard.getPointIndex(last[0], last[1]));
+        touch(MotionEvent.ACTION_DOWN, last);
+        touch(MotionEvent.ACTION_UP, last);
+        assertEquals("", events.toString());
+    }
+
+    private int remeasure() {
+        int spec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        keyboard.measure(spec, spec);
+        return keyboard.getMeasuredHeight();
+    }
+
+    private boolean touch(int action, int[] point) {
+        MotionEvent event = MotionEvent.obtain(0, 0, action, point[0], point[1], 0);
+        boolean handled = keyboard.onTouchEvent(event);
+        event.recycle();
+        return handled;
+    }
+
+    /**
+     * 查找按键内的一个点
+     */
+    private int[] pointOf(int index) {
+        for (int y = 0; y < keyboard.getMeasuredHeight(); y += 4) {
+            for (int x = 0; x < keyboard.getMeasuredWidth(); x += 4) {
+                if (keyboard.getPointIndex(x, y) == index)
+                    return new int[]{x + 2, y + 2};
+            }
+        }
+        throw new AssertionError("key " + index + " not found");
+    }
+}
@@ -0,0 +1,40 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 按键到显示延迟统计的测试
+ */
+public class EasyMetricsTest {
+
+    @Test
+    public void keyWithoutInputChange_notRecorded() throws Exception {
+        EasyMetrics metrics = new EasyMetrics();
+        // 功能键不改变输入内容
+        metrics.beginKey(100);
+        metrics.endKey();
+        metrics.onInputDrawn(0, 150);
+        assertEquals(0, metrics.keyToPixel.getCount());
+
+        // 之后与按键无关的输入改变也不计入
+        metrics.onInputChanged();
+        metrics.onInputDrawn(0, 200);
+        assertEquals(0, metrics.keyToPixel.getCount());
+    }
+
+    @Test
+    public void keyWithInputChange_recordedOnce() throws Exception {
+        EasyMetrics metrics = new EasyMetrics();
+        metrics.beginKey(100);
+        metrics.onInputChanged();
+        metrics.endKey();
+        metrics.onInputDrawn(0, 108);
+        assertEquals(1, metrics.keyToPixel.getCount());
+        assertEquals(8000, metrics.keyToPixel.getMaxMicros());
+
+        metrics.onInputDrawn(0, 300);
+        assertEquals(1, metrics.keyToPixel.getCount());
+    }
+}
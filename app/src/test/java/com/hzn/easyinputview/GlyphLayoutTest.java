@@ -0,0 +1,96 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文字位置表的测试
+ */
+public class GlyphLayoutTest {
+
+    private int measured;
+
+    private final GlyphLayout.Measurer measurer = new GlyphLayout.Measurer() {
+        @Override
+        public float measureText(char[] text, int index, int count) {
+            measured++;
+            return 10 * count;
+        }
+    };
+
+    @Test
+    public void slotOffsets_separateMode() throws Exception {
+        GlyphLayout layout = new GlyphLayout();
+        layout.setSlots(16, 20, new int[]{4}, 12);
+
+        assertEquals(0, layout.getSlotLeft(0));
+        assertEquals(60, layout.getSlotLeft(3));
+        assertEquals(80 + 12, layout.getSlotLeft(4));
+        assertEquals(300 + 36, layout.getSlotLeft(15));
+        assertEquals(16 * 20 + 3 * 12, layout.getContentWidth());
+        assertEquals(0, layout.lengthOf(0));
+        assertEquals(5 * 20 + 12, layout.lengthOf(5));
+
+        assertEquals(0, layout.slotAt(-5));
+        assertEquals(0, layout.slotAt(19));
+        assertEquals(3, layout.slotAt(85));
+        assertEquals(4, layout.slotAt(92));
+        assertEquals(15, layout.slotAt(10000));
+    }
+
+    @Test
+    public void slotOffsets_groupPattern() throws Exception {
+        GlyphLayout layout = new GlyphLayout();
+        // 美国运通卡 4-6-5
+        layout.setSlots(15, 10, SeparatePattern.parse("4, 6, 5"), 8);
+        assertEquals(30, layout.getSlotLeft(3));
+        assertEquals(40 + 8, layout.getSlotLeft(4));
+        assertEquals(90 + 8, layout.getSlotLeft(9));
+        assertEquals(100 + 16, layout.getSlotLeft(10));
+        assertEquals(140 + 16, layout.getSlotLeft(14));
+        assertEquals(150 + 16, layout.getContentWidth());
+
+        // 规则用完后按最后一组继续分组
+        layout.setSlots(12, 10, new int[]{3, 3, 4}, 8);
+        assertEquals(100 + 24, layout.getSlotLeft(10));
+
+        // 不分隔
+        layout.setSlots(4, 10, null, 8);
+        assertEquals(40, layout.getContentWidth());
+    }
+
+    @Test
+    public void charWidths_measuredOncePerChar() throws Exception {
+        GlyphLayout layout = new GlyphLayout();
+        layout.setSlots(16, 20, new int[]{4}, 12);
+        InputBuffer buffer = new InputBuffer(16);
+
+        // 每种字符只测量一次
+        for (int i = 0; i < 16; i++) {
+            buffer.add((char) ('0' + i % 10));
+            layout.update(buffer, measurer);
+        }
+        assertEquals(10, measured);
+        assertEquals(10, layout.getMeasureCount());
+        assertEquals(80 + 12 + 10 - 5, layout.getGlyphX(4));
+
+        // 删除后再添加不需要重新测量
+        buffer.remove();
+        layout.update(buffer, measurer);
+        buffer.add('7');
+        layout.update(buffer, measurer);
+        assertEquals(10, layout.getMeasureCount());
+
+        // 替代的文字只测量一次
+        layout.setInstead(new char[]{'*'});
+        layout.update(buffer, measurer);
+        assertEquals(11, layout.getMeasureCount());
+
+        // 样式改变后重新测量
+        layout.invalidateGlyphs();
+        layout.update(buffer, measurer);
+        layout.update(buffer, measurer);
+        assertEquals(12, layout.getMeasureCount());
+    }
+}
@@ -0,0 +1,40 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 填充动画合并的测试
+ */
+public class InputAnimatorTest {
+
+    @Test
+    public void burst_coalescesIntoSingleAnimation() throws Exception {
+        InputAnimator animator = new InputAnimator();
+        int width = 40;
+        long frame = 16000000L;
+
+        // 第一个字符开始动画
+        animator.start(0, width, 100);
+        animator.update(0);
+        animator.update(frame);
+        int mid = animator.getValue();
+        assertTrue(mid > 0 && mid < width);
+
+        // 同一帧内连续输入4个字符，从当前位置直接朝最终长度播放
+        for (int i = 2; i <= 5; i++)
+            animator.start(animator.getValue(), i * width, 100);
+        assertEquals(mid, animator.getValue());
+        assertEquals(5 * width, animator.getTarget());
+
+        long t = frame;
+        int last = mid;
+        while (animator.update(t)) {
+            assertTrue(animator.getValue() >= last);
+            last = animator.getValue();
+            t += frame;
+        }
+        assertEquals(5 * width, animator.getValue());
+    }
+}
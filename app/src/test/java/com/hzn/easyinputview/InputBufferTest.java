@@ -0,0 +1,57 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 输入模型的测试
+ */
+public class InputBufferTest {
+
+    private static final int MAX = 19;
+    private static final int OPS = 200000;
+
+    @Test
+    public void mixedOps_noInputDropped() throws Exception {
+        InputBuffer buffer = new InputBuffer(MAX);
+        StringBuilder expected = new StringBuilder();
+        Random random = new Random(20161110);
+        for (int i = 0; i < OPS; i++) {
+            if (random.nextInt(3) > 0) {
+                char d = (char) ('0' + random.nextInt(10));
+                boolean added = buffer.add(d);
+                assertEquals(expected.length() < MAX, added);
+                if (added)
+                    expected.append(d);
+            } else {
+                boolean removed = buffer.remove();
+                assertEquals(expected.length() > 0, removed);
+                if (removed)
+                    expected.setLength(expected.length() - 1);
+            }
+        }
+
+        assertEquals(expected.length(), buffer.size());
+        for (int i = 0; i < buffer.size(); i++)
+            assertEquals(expected.charAt(i), buffer.charAt(i));
+        assertEquals(expected.toString(), buffer.text().toString());
+    }
+
+    @Test
+    public void contentEquals_truncatesLikeAppend() throws Exception {
+        InputBuffer buffer = new InputBuffer(3);
+        assertTrue(buffer.contentEquals((CharSequence) null));
+        assertTrue(buffer.contentEquals(new char[0], 0, 0));
+
+        char[] src = "x1234".toCharArray();
+        buffer.append(src, 1, 4);
+        assertEquals("123", buffer.text().toString());
+        assertTrue(buffer.contentEquals(src, 1, 4));
+        assertTrue(buffer.contentEquals("123"));
+        assertFalse(buffer.contentEquals("124"));
+        assertFalse(buffer.contentEquals(src, 1, 2));
+    }
+}
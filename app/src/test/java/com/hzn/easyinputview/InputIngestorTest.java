@@ -0,0 +1,92 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多线程输入队列的测试
+ */
+public class InputIngestorTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 10000;
+
+    @Test
+    public void multipleProducers_noLossAndInOrder() throws Exception {
+        final AtomicInteger scheduled = new AtomicInteger();
+        final InputIngestor ingestor = new InputIngestor(new InputIngestor.Scheduler() {
+            @Override
+            public void schedule() {
+                scheduled.incrementAndGet();
+            }
+        });
+        final InputBuffer buffer = new InputBuffer(PRODUCERS * PER_PRODUCER);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(PRODUCERS);
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    // 每个字符编码为 生产者序号 * PER_PRODUCER + 序列号
+                    for (int i = 0; i < PER_PRODUCER; i++)
+                        ingestor.offerAdd((char) (producer * PER_PRODUCER + i));
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // 模拟UI线程，生产者运行期间不断取出
+        start.countDown();
+        int drains = 0;
+        while (done.getCount() > 0) {
+            if (ingestor.drainTo(buffer) > 0)
+                drains++;
+        }
+        if (ingestor.drainTo(buffer) > 0)
+            drains++;
+
+        assertFalse(ingestor.hasPending());
+        assertEquals(PRODUCERS * PER_PRODUCER, buffer.size());
+
+        int[] next = new int[PRODUCERS];
+        for (int i = 0; i < buffer.size(); i++) {
+            int c = buffer.charAt(i);
+            int producer = c / PER_PRODUCER;
+            assertEquals(next[producer], c % PER_PRODUCER);
+            next[producer]++;
+        }
+        for (int p = 0; p < PRODUCERS; p++)
+            assertEquals(PER_PRODUCER, next[p]);
+
+        // 只在队列由空变为非空时请求处理，请求次数不超过实际处理次数加1
+        assertTrue(scheduled.get() >= 1);
+        assertTrue("scheduled " + scheduled.get() + ", drains " + drains, scheduled.get() <= drains + 1);
+    }
+
+    @Test
+    public void removeAppliedInOrder() throws Exception {
+        InputIngestor ingestor = new InputIngestor(new InputIngestor.Scheduler() {
+            @Override
+            public void schedule() {
+            }
+        });
+        InputBuffer buffer = new InputBuffer(4);
+        ingestor.offerAdd('1');
+        ingestor.offerAdd('2');
+        ingestor.offerRemove();
+        ingestor.offerAdd('3');
+        assertEquals(4, ingestor.drainTo(buffer));
+        assertEquals("13", buffer.text().toString());
+    }
+}
@@ -0,0 +1,106 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 逐字符校验器的测试，增量结果需要与每次重新计算全部字符的结果一致
+ */
+public class InputValidatorTest {
+
+    private static final int OPS = 100000;
+
+    @Test
+    public void luhn_knownNumbers() throws Exception {
+        assertTrue(validate(new LuhnValidator(), "4111111111111111"));
+        assertTrue(validate(new LuhnValidator(), "79927398713"));
+        assertTrue(validate(new LuhnValidator(), "378282246310005"));
+        assertFalse(validate(new LuhnValidator(), "79927398710"));
+        assertFalse(validate(new LuhnValidator(), "4111111111111112"));
+        assertFalse(validate(new LuhnValidator(), "411111111111111a"));
+        assertFalse(validate(new LuhnValidator(), "0"));
+    }
+
+    @Test
+    public void mod97_knownIbans() throws Exception {
+        assertTrue(validate(new Mod97Validator(), "GB82WEST12345698765432"));
+        assertTrue(validate(new Mod97Validator(), "DE89370400440532013000"));
+        assertTrue(validate(new Mod97Validator(), "gb82west12345698765432"));
+        assertFalse(validate(new Mod97Validator(), "GB82WEST12345698765433"));
+        assertFalse(validate(new Mod97Validator(), "GB82-WEST12345698765432"));
+        assertFalse(validate(new Mod97Validator(), "GB82"));
+    }
+
+    @Test
+    public void luhn_mixedOps_matchesFullCheck() throws Exception {
+        Random random = new Random(20161110);
+        LuhnValidator validator = new LuhnValidator();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < OPS; i++) {
+            mutate(random, validator, text, "0123456789", 19);
+            assertEquals(text.toString(), luhn(text), validator.isValid());
+        }
+    }
+
+    @Test
+    public void mod97_mixedOps_matchesFullCheck() throws Exception {
+        Random random = new Random(20161110);
+        Mod97Validator validator = new Mod97Validator();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < OPS; i++) {
+            mutate(random, validator, text, "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ", 40);
+            assertEquals(text.toString(), mod97(text), validator.isValid());
+        }
+    }
+
+    private static boolean validate(InputValidator validator, String text) {
+        validator.reset();
+        for (int i = 0; i < text.length(); i++)
+            validator.onAdd(i, text.charAt(i));
+        return validator.isValid();
+    }
+
+    private static void mutate(Random random, InputValidator validator, StringBuilder text, String chars, int max) {
+        if (random.nextInt(3) > 0 && text.length() < max) {
+            char c = chars.charAt(random.nextInt(chars.length()));
+            validator.onAdd(text.length(), c);
+            text.append(c);
+        } else if (text.length() > 0) {
+            int index = text.length() - 1;
+            validator.onRemove(index, text.charAt(index));
+            text.setLength(index);
+        }
+    }
+
+    private static boolean luhn(CharSequence text) {
+        if (text.length() < 2)
+            return false;
+
+        int sum = 0;
+        for (int i = text.length() - 1, n = 0; i >= 0; i--, n++) {
+            int d = text.charAt(i) - '0';
+            if (n % 2 == 1) {
+                d *= 2;
+                if (d > 9)
+                    d -= 9;
+            }
+            sum += d;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static boolean mod97(CharSequence text) {
+        if (text.length() <= 4)
+            return false;
+
+        String rearranged = text.subSequence(4, text.length()).toString() + text.subSequence(0, 4);
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < rearranged.length(); i++)
+            digits.append(Character.digit(rearranged.charAt(i), 36));
+        return new BigInteger(digits.toString()).mod(BigInteger.valueOf(97)).intValue() == 1;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hzn.easyinputview;
+
+import android.graphics.Rect;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 命中查找表的测试，每个像素的结果都需要与线性查找一致
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class KeyHitGridTest {
+
+    @Test
+    public void defaultLayout_matchesLinearScan() throws Exception {
+        assertMatchesLinearScan(keyRects(3, 4, true, 1080, 720, 150));
+    }
+
+    @Test
+    public void sixtyKeys_matchesLinearScan() throws Exception {
+        assertMatchesLinearScan(keyRects(12, 5, false, 1080, 600, 0));
+    }
+
+    @Test
+    public void spansAndGaps_matchLinearScan() throws Exception {
+        Rect[] rects = {
+                new Rect(0, 0, 300, 50),
+                new Rect(0, 60, 100, 120),
+                new Rect(100, 60, 300, 120),
+                new Rect(0, 120, 0, 180),
+                new Rect(150, 120, 250, 180),
+        };
+        assertMatchesLinearScan(rects);
+    }
+
+    @Test
+    public void rebuild_afterResize() throws Exception {
+        KeyHitGrid grid = new KeyHitGrid();
+        grid.build(keyRects(3, 4, true, 1080, 720, 150));
+        Rect[] small = keyRects(3, 4, true, 540, 360, 75);
+        grid.build(small);
+        assertEquals(-1, grid.keyAt(600, 100));
+        assertEquals(linearScan(small, 500, 300), grid.keyAt(500, 300));
+    }
+
+    /**
+     * 生成规则排列的按键位置，与EasyKeyboard的测量方式相同
+     *
+     * @param columns    列数
+     * @param rows       除功能键行外的行数
+     * @param funcRow    是否有一个占满一行的功能键
+     * @param width      宽度
+     * @param height     除功能键行外的高度
+     * @param funcHeight 功能键行高度
+     * @return 按键位置
+     */
+    static Rect[] keyRects(int columns, int rows, boolean funcRow, int width, int height, int funcHeight) {
+        int first = funcRow ? 1 : 0;
+        int top = funcRow ? funcHeight : 0;
+        Rect[] rects = new Rect[first + columns * rows];
+        if (funcRow)
+            rects[0] = new Rect(0, 0, width, funcHeight);
+        int w = width / columns;
+        int h = height / rows;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                rects[first + r * columns + c] = new Rect(w * c, top + h * r,
+                        c == columns - 1 ? width : w * (c + 1), top + h * (r + 1));
+            }
+        }
+        return rects;
+    }
+
+    static int linearScan(Rect[] rects, int x, int y) {
+        for (int i = 0; i < rects.length; i++) {
+            if (rects[i].contains(x, y))
+                return i;
+        }
+        return -1;
+    }
+
+    private static void assertMatchesLinearScan(Rect[] rects) {
+        KeyHitGrid grid = new KeyHitGrid();
+        grid.build(rects);
+        int width = 0;
+        int height = 0;
+        for (Rect r : rects) {
+            width = Math.max(width, r.right);
+            height = Math.max(height, r.bottom);
+        }
+        for (int y = -2; y < height + 2; y++) {
+            for (int x = -2; x < width + 2; x++)
+                assertEquals("(" + x + ", " + y + ")", linearScan(rects, x, y), grid.keyAt(x, y));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hzn.easyinputview;
+
+import android.content.res.Resources;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 键盘布局解析及缓存的测试
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class KeyboardLayoutTest {
+
+    @Test
+    public void defaultLayout_keepsKeyIndexes() throws Exception {
+        KeyboardLayout layout = KeyboardLayout.obtain(getResources(), R.xml.keyboard_number);
+        assertEquals(13, layout.getKeyCount());
+        assertEquals(3, layout.columns);
+        assertEquals(5, layout.rowCount);
+        assertEquals(1, layout.getFuncRowCount());
+        assertEquals(EasyKeyboard.KEY_CODE_FUNC, layout.codes[EasyKeyboard.KEY_FUNC]);
+        assertEquals(3, layout.spans[EasyKeyboard.KEY_FUNC]);
+        assertEquals(EasyKeyboard.KEY_CODE_BACK, layout.codes[EasyKeyboard.KEY_BACK]);
+        assertEquals('1', layout.codes[1]);
+        assertEquals(EasyKeyboard.KEY_CODE_NONE, layout.codes[10]);
+        assertEquals('0', layout.codes[11]);
+    }
+
+    @Test
+    public void obtain_parsesOnce() throws Exception {
+        KeyboardLayout hex = KeyboardLayout.obtain(getResources(), R.xml.keyboard_hex);
+        assertSame(hex, KeyboardLayout.obtain(getResources(), R.xml.keyboard_hex));
+        assertEquals(18, hex.getKeyCount());
+        assertEquals(5, hex.columns);
+        assertEquals(3, hex.spans[16]);
+        assertEquals(3, hex.cols[17]);
+    }
+
+    @Test
+    public void pinLayout_hasNoFuncRow() throws Exception {
+        KeyboardLayout pin = KeyboardLayout.obtain(getResources(), R.xml.keyboard_pin);
+        assertEquals(14, pin.getKeyCount());
+        assertEquals(0, pin.getFuncRowCount());
+        assertEquals(EasyKeyboard.KEY_CODE_CLEAR, pin.codes[7]);
+        assertEquals(EasyKeyboard.KEY_CODE_FUNC, pin.codes[pin.getKeyCount() - 1]);
+    }
+
+    @Test
+    public void switchLayout_resizesKeys() throws Exception {
+        EasyKeyboard keyboard = new EasyKeyboard(RuntimeEnvironment.application);
+        assertEquals(13, keyboard.getKeyCount());
+        keyboard.setLayout(R.xml.keyboard_pin);
+        assertEquals(14, keyboard.getKeyCount());
+        assertEquals(14, keyboard.getDataList().size());
+        assertEquals(EasyKeyboard.KEY_CODE_BACK, keyboard.getKeyCode(3));
+    }
+
+    private static Resources getResources() {
+        return RuntimeEnvironment.application.getResources();
+    }
+}
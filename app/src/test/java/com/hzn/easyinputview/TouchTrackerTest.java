@@ -0,0 +1,175 @@
+package com.hzn.easyinputview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 触摸跟踪的回放测试，回放按在按键边缘的抖动轨迹，
+ * 与原来每次移动都重新查找按键、移出按键就取消的方式比较取消次数
+ */
+public class TouchTrackerTest {
+
+    // 按键宽高，3列4行
+    private static final int KEY_SIZE = 100;
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 4;
+    private static final int SLOP = 8;
+    private static final int HYSTERESIS = 12;
+
+    // 按在按键5右边缘的一段记录轨迹，每行为一次ACTION_MOVE，包含若干历史采样点，x、y交替
+    private static final float[][] EDGE_TRACE = {
+            {196f, 150f},
+            {197.5f, 150.5f, 199f, 151f, 200.5f, 151f},
+            {201f, 151.5f, 199.5f, 152f},
+            {198f, 152f, 200f, 151.5f, 202f, 151f, 203f, 150.5f},
+            {201.5f, 150f},
+            {199f, 149.5f, 197f, 149f, 198.5f, 149f},
+            {200.5f, 149.5f, 202.5f, 150f},
+            {199.5f, 150.5f},
+    };
+
+    @Test
+    public void edgeTrace_noSpuriousCancel() throws Exception {
+        int legacy = replayLegacy(EDGE_TRACE);
+        int tracked = replayTracked(EDGE_TRACE);
+        // 原来的方式在第一次移动时就因为越过边缘被取消
+        assertEquals(1, legacy);
+        assertEquals(0, tracked);
+    }
+
+    @Test
+    public void noisyTraces_fewerCancels() throws Exception {
+        Random random = new Random(24);
+        int legacyCancels = 0;
+        int trackedCancels = 0;
+        for (int n = 0; n < 200; n++) {
+            float[][] trace = jitterTrace(random);
+            legacyCancels += replayLegacy(trace);
+            trackedCancels += replayTracked(trace);
+        }
+        assertTrue("legacy cancels " + legacyCancels, legacyCancels > 100);
+        assertEquals(0, trackedCancels);
+    }
+
+    @Test
+    public void slideOut_cancelsOnce() throws Exception {
+        float[][] trace = new float[10][];
+        for (int i = 0; i < trace.length; i++) {
+            // 每次移动包含两个历史采样点，从按键5中心滑到按键4
+            float x = 150f - i * 12f;
+            trace[i] = new float[]{x + 8f, 150f, x + 4f, 150f, x, 150f};
+        }
+        assertEquals(1, replayTracked(trace));
+        assertEquals(1, replayLegacy(trace));
+    }
+
+    @Test
+    public void historicalSample_cancelsEvenIfLastSampleIsBack() throws Exception {
+        // 历史采样点已经移出迟滞边界，最后一个采样点又回到按键内，仍然取消
+        float[][] trace = {
+                {150f, 150f},
+                {230f, 150f, 150f, 150f},
+        };
+        assertEquals(1, replayTracked(trace));
+        assertEquals(0, replayLegacy(trace));
+    }
+
+    @Test
+    public void setSlop_keepsSlopOfPointersAlreadyDown() throws Exception {
+        TouchTracker tracker = new TouchTracker();
+        tracker.setSlop(50);
+        tracker.down(0, 5, 100, 100, 200, 200, 190f, 150f);
+        tracker.setSlop(0);
+        tracker.down(1, 4, 0, 100, 100, 200, 90f, 150f);
+        // 触摸点0按下时的阈值为50，移出按键30px仍在阈值内
+        assertEquals(-1, tracker.move(0, 220f, 150f));
+        assertEquals(4, tracker.move(1, 120f, 150f));
+    }
+
+    @Test
+    public void pointerIdOutOfRange_ignored() throws Exception {
+        TouchTracker tracker = new TouchTracker();
+        assertFalse(tracker.down(TouchTracker.MAX_POINTERS, 5, 0, 0, 1, 1, 0, 0));
+        assertEquals(-1, tracker.keyOf(TouchTracker.MAX_POINTERS));
+        assertEquals(-1, tracker.move(TouchTracker.MAX_POINTERS, 100, 100));
+        assertEquals(-1, tracker.up(TouchTracker.MAX_POINTERS));
+    }
+
+    /**
+     * 原来的方式，每次移动只取最后一个采样点重新查找按键，不同就取消
+     *
+     * @return 取消次数
+     */
+    private static int replayLegacy(float[][] trace) {
+        int key = keyAt(trace[0][0], trace[0][1]);
+        int cancels = 0;
+        for (int i = 1; i < trace.length && key != -1; i++) {
+            float[] samples = trace[i];
+            int index = keyAt(samples[samples.length - 2], samples[samples.length - 1]);
+            if (index != key) {
+                cancels++;
+                key = -1;
+            }
+        }
+        return cancels;
+    }
+
+    /**
+     * 使用TouchTracker，处理所有历史采样点，移动时不查找按键
+     *
+     * @return 取消次数
+     */
+    private static int replayTracked(float[][] trace) {
+        TouchTracker tracker = new TouchTracker();
+        tracker.setSlop(SLOP);
+        tracker.setHysteresis(HYSTERESIS);
+        int key = keyAt(trace[0][0], trace[0][1]);
+        int col = key % COLUMNS;
+        int row = key / COLUMNS;
+        tracker.down(0, key, col * KEY_SIZE, row * KEY_SIZE, (col + 1) * KEY_SIZE, (row + 1) * KEY_SIZE,
+                trace[0][0], trace[0][1]);
+
+        int cancels = 0;
+        for (int i = 1; i < trace.length && tracker.keyOf(0) != -1; i++) {
+            float[] samples = trace[i];
+            for (int s = 0; s < samples.length; s += 2) {
+                if (tracker.move(0, samples[s], samples[s + 1]) != -1) {
+                    cancels++;
+                    break;
+                }
+            }
+        }
+        return cancels;
+    }
+
+    /**
+     * 生成按在按键5右边缘附近、带随机抖动的轨迹，每次移动包含1到4个采样点
+     */
+    private static float[][] jitterTrace(Random random) {
+        float x = 194f + random.nextFloat() * 5f;
+        float y = 120f + random.nextFloat() * 60f;
+        float[][] trace = new float[12][];
+        trace[0] = new float[]{x, y};
+        for (int i = 1; i < trace.length; i++) {
+            int count = 1 + random.nextInt(4);
+            float[] samples = new float[count * 2];
+            for (int s = 0; s < count; s++) {
+                samples[s * 2] = x + (float) random.nextGaussian() * 3f;
+                samples[s * 2 + 1] = y + (float) random.nextGaussian() * 3f;
+            }
+            trace[i] = samples;
+        }
+        return trace;
+    }
+
+    private static int keyAt(float x, float y) {
+        int col = (int) x / KEY_SIZE;
+        int row = (int) y / KEY_SIZE;
+        if (x < 0 || y < 0 || col >= COLUMNS || row >= ROWS)
+            return -1;
+        return row * COLUMNS + col;
+    }
+}